@@ -1,6 +1,20 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
 
 /**
  * Study Buddy - Streamlined CLI app for Clemson students.
@@ -27,11 +41,20 @@ public class StudyBuddyApp {
     /**
      * Represents a single availability window (day + start/end time).
      * Immutable and validated so end > start.
+     * Also carries a packed minute-of-week form (Monday 00:00 = 0) so the matching
+     * hot paths can compare plain ints instead of DayOfWeek/LocalTime objects.
      */
     static class TimeSlot {
+        static final int MINUTES_PER_DAY = 24 * 60;
+        static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+        /** Sentinel returned by {@link #intersect(long, long)} when there is no overlap. */
+        static final long NONE = -1L;
+
         final DayOfWeek day;
         final LocalTime start;
         final LocalTime end;
+        final int startMin; // minute of week, inclusive
+        final int endMin;   // minute of week, exclusive
 
         /**
          * Creates a time window on a specific day.
@@ -43,17 +66,59 @@ public class StudyBuddyApp {
             if (end.isBefore(start) || end.equals(start)) {
                 throw new IllegalArgumentException("End time must be after start time");
             }
+            // slots are stored and matched in whole minutes; truncating would change what was asked for
+            if (start.toNanoOfDay() % 60_000_000_000L != 0 || end.toNanoOfDay() % 60_000_000_000L != 0) {
+                throw new IllegalArgumentException("Times must be whole minutes");
+            }
             this.day = Objects.requireNonNull(day);
             this.start = Objects.requireNonNull(start);
             this.end = Objects.requireNonNull(end);
+            int base = (day.getValue() - 1) * MINUTES_PER_DAY;
+            this.startMin = base + start.toSecondOfDay() / 60;
+            this.endMin = base + end.toSecondOfDay() / 60;
+        }
+
+        /**
+         * Materialises a slot from minute-of-week bounds (both on the same day).
+         */
+        static TimeSlot ofMinutes(int startMin, int endMin) {
+            DayOfWeek day = DayOfWeek.of(startMin / MINUTES_PER_DAY + 1);
+            int base = (startMin / MINUTES_PER_DAY) * MINUTES_PER_DAY;
+            return new TimeSlot(day, LocalTime.ofSecondOfDay((startMin - base) * 60L),
+                    LocalTime.ofSecondOfDay((endMin - base) * 60L));
+        }
+
+        /** Materialises a slot from its packed form. */
+        static TimeSlot fromPacked(long packed) { return ofMinutes(startOf(packed), endOf(packed)); }
+
+        /** Packs minute-of-week bounds into one long (start in the high word, so longs sort by start then end). */
+        static long pack(int startMin, int endMin) { return ((long) startMin << 32) | endMin; }
+
+        /** Start minute of a packed slot. */
+        static int startOf(long packed) { return (int) (packed >>> 32); }
+
+        /** End minute of a packed slot. */
+        static int endOf(long packed) { return (int) packed; }
+
+        /**
+         * Intersects two packed slots using integer min/max only (no allocation).
+         * @return packed intersection, or {@link #NONE} if they share no positive-length window
+         */
+        static long intersect(long a, long b) {
+            int s = Math.max(startOf(a), startOf(b));
+            int e = Math.min(endOf(a), endOf(b));
+            return e > s ? pack(s, e) : NONE;
         }
 
+        /** This slot in packed form. */
+        long packed() { return pack(startMin, endMin); }
+
         /**
          * Returns true if two slots overlap on the same day.
+         * Minute-of-week ranges never touch across days, so no separate day check is needed.
          */
         boolean overlaps(TimeSlot other) {
-            if (this.day != other.day) return false;
-            return !(this.end.isBefore(other.start) || this.start.isAfter(other.end));
+            return this.startMin <= other.endMin && other.startMin <= this.endMin;
         }
 
         /**
@@ -61,11 +126,8 @@ public class StudyBuddyApp {
          * @return intersection slot or null if none
          */
         TimeSlot intersection(TimeSlot other) {
-            if (!overlaps(other)) return null;
-            LocalTime s = this.start.isAfter(other.start) ? this.start : other.start;
-            LocalTime e = this.end.isBefore(other.end) ? this.end : other.end;
-            if (e.isAfter(s)) return new TimeSlot(this.day, s, e);
-            return null;
+            long p = intersect(packed(), other.packed());
+            return p == NONE ? null : fromPacked(p);
         }
 
         /**
@@ -74,260 +136,2442 @@ public class StudyBuddyApp {
         @Override public String toString() { return day + " " + start + "-" + end; }
     }
 
+    /**
+     * Fixed-resolution weekly availability bitmap: 672 fifteen-minute buckets in 11 longs.
+     * A bucket is set only when a slot covers it completely, so masks never over-report free time.
+     */
+    static final class WeekMask {
+        static final int BUCKET_MINUTES = 15;
+        static final int BUCKETS = TimeSlot.MINUTES_PER_WEEK / BUCKET_MINUTES;
+        static final int WORDS = (BUCKETS + 63) / 64;
+        private static final int BUCKETS_PER_DAY = TimeSlot.MINUTES_PER_DAY / BUCKET_MINUTES;
+
+        private WeekMask() {}
+
+        /** Sets every bucket fully covered by the slot. */
+        static void add(long[] mask, TimeSlot slot) {
+            setBits(mask, (slot.startMin + BUCKET_MINUTES - 1) / BUCKET_MINUTES, slot.endMin / BUCKET_MINUTES, true);
+        }
+
+        /** Clears every bucket that overlaps the window at all, since none of them is fully free any more. */
+        static void clear(long[] mask, int startMin, int endMin) {
+            setBits(mask, startMin / BUCKET_MINUTES, (endMin + BUCKET_MINUTES - 1) / BUCKET_MINUTES, false);
+        }
+
+        /** Sets or clears buckets {@code [from, to)}. */
+        private static void setBits(long[] mask, int from, int to, boolean on) {
+            while (from < to) {
+                int word = from >>> 6;
+                int upto = Math.min(to, (word + 1) << 6);
+                long bits = (-1L >>> (64 - (upto - from))) << (from & 63);
+                if (on) mask[word] |= bits; else mask[word] &= ~bits;
+                from = upto;
+            }
+        }
+
+        /** Builds a fresh mask from a list of slots. */
+        static long[] of(List<TimeSlot> slots) {
+            long[] mask = new long[WORDS];
+            for (TimeSlot ts : slots) add(mask, ts);
+            return mask;
+        }
+
+        /**
+         * Word-wise AND of two masks into {@code out}.
+         * @return number of shared buckets (0 means no overlap)
+         */
+        static int and(long[] a, long[] b, long[] out) {
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                out[i] = a[i] & b[i];
+                count += Long.bitCount(out[i]);
+            }
+            return count;
+        }
+
+        /**
+         * Converts runs of set buckets back into slots (split at day boundaries), ordered by time.
+         */
+        static List<TimeSlot> toSlots(long[] mask) {
+            List<TimeSlot> res = new ArrayList<>();
+            int i = nextSet(mask, 0);
+            while (i >= 0) {
+                int dayEnd = (i / BUCKETS_PER_DAY + 1) * BUCKETS_PER_DAY;
+                int j = i + 1;
+                while (j < dayEnd && isSet(mask, j)) j++;
+                // the last bucket of a day ends at midnight, which LocalTime cannot express
+                int endMin = Math.min(j * BUCKET_MINUTES, dayEnd * BUCKET_MINUTES - 1);
+                res.add(TimeSlot.ofMinutes(i * BUCKET_MINUTES, endMin));
+                i = nextSet(mask, j);
+            }
+            return res;
+        }
+
+        private static boolean isSet(long[] mask, int bit) { return (mask[bit >>> 6] & (1L << bit)) != 0; }
+
+        private static int nextSet(long[] mask, int from) {
+            if (from >= BUCKETS) return -1;
+            int word = from >>> 6;
+            long w = mask[word] & (-1L << from);
+            while (true) {
+                if (w != 0) return (word << 6) + Long.numberOfTrailingZeros(w);
+                if (++word == WORDS) return -1;
+                w = mask[word];
+            }
+        }
+    }
+
+    /**
+     * Interns course codes: each distinct code is normalized once and given a dense int ID, so
+     * enrollments can be kept as bitsets and course checks become bit tests instead of string hashing.
+     * Raw spellings already seen ("cpsc 3720 ") map straight to their ID without re-normalizing.
+     * IDs are process-wide, so standalone students and sessions agree with every repository.
+     */
+    static final class CourseRegistry {
+        static final CourseRegistry SHARED = new CourseRegistry();
+        private static final int ALIAS_LIMIT = 4096; // raw spellings remembered; user input must not grow it forever
+
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>(); // normalized code or raw alias -> ID
+        private volatile String[] codes = new String[0]; // ID -> normalized code
+
+        /** Returns the ID of a course, assigning the next one if the code is new. */
+        int intern(String course) {
+            Integer id = ids.get(course);
+            return id != null ? id : internSlow(course);
+        }
+
+        private synchronized int internSlow(String course) {
+            String c = normalizeCourse(course);
+            Integer id = ids.get(c);
+            if (id == null) {
+                id = codes.length;
+                String[] grown = Arrays.copyOf(codes, id + 1);
+                grown[id] = c;
+                ids.put(c, id);
+                codes = grown;
+            }
+            if (ids.size() < ALIAS_LIMIT) ids.putIfAbsent(course, id);
+            return id;
+        }
+
+        /** Returns the ID of a known course, or -1 if no one ever used the code. */
+        int idOf(String course) {
+            Integer id = ids.get(course);
+            if (id != null) return id;
+            id = ids.get(normalizeCourse(course));
+            if (id == null) return -1;
+            if (ids.size() < ALIAS_LIMIT) ids.putIfAbsent(course, id);
+            return id;
+        }
+
+        /** Normalized code for an ID. */
+        String code(int id) { return codes[id]; }
+
+        /** Number of distinct courses interned so far. */
+        int size() { return codes.length; }
+
+        /** True if the course bit is set. */
+        static boolean contains(long[] bits, int id) {
+            int word = id >>> 6;
+            return id >= 0 && word < bits.length && (bits[word] & (1L << id)) != 0;
+        }
+
+        /** Copy of the bitset with the course bit set (grown as needed). */
+        static long[] with(long[] bits, int id) {
+            long[] res = Arrays.copyOf(bits, Math.max(bits.length, (id >>> 6) + 1));
+            res[id >>> 6] |= 1L << id;
+            return res;
+        }
+
+        /** Copy of the bitset with the course bit cleared. */
+        static long[] without(long[] bits, int id) {
+            long[] res = bits.clone();
+            if ((id >>> 6) < res.length) res[id >>> 6] &= ~(1L << id);
+            return res;
+        }
+
+        /** Course IDs set in the bitset, ascending. */
+        static int[] toIds(long[] bits) {
+            int n = 0;
+            for (long w : bits) n += Long.bitCount(w);
+            int[] res = new int[n];
+            int k = 0;
+            for (int word = 0; word < bits.length; word++) {
+                for (long w = bits[word]; w != 0; w &= w - 1) res[k++] = (word << 6) + Long.numberOfTrailingZeros(w);
+            }
+            return res;
+        }
+    }
+
     /**
      * Represents a student with ID, name, enrolled courses, and availability.
+     * Enrollment is a bitset of {@link CourseRegistry} IDs; {@link #courses} mirrors it as codes for display.
+     * Availability is kept canonical: sorted by time, with no two slots overlapping or touching,
+     * so every reader can rely on sorted, disjoint input.
+     * Mutators are synchronized and the collections are copy-on-write, so readers on other
+     * threads can iterate without locking. The slot list, packed form and mask live in one
+     * immutable {@link Availability} that is swapped with a single write, so a reader never
+     * sees them out of step or a half-applied change.
      */
     static class Student {
         final int id;
         String name;
-        final Set<String> courses = new LinkedHashSet<>();
-        final List<TimeSlot> availability = new ArrayList<>();
+        final Set<String> courses = new CopyOnWriteArraySet<>(); // normalized codes, for display
+        private volatile long[] courseBits = new long[0]; // enrolled course IDs, replaced on change
+        private volatile Availability availability = Availability.EMPTY; // replaced as a whole on every change
+        private volatile int availabilityVersion; // bumped on every availability change (match cache validation)
+        private final Repository owner; // keeps the repository's course index in step; null if standalone
 
         /**
          * Creates a student shell with no courses/availability yet.
          */
-        Student(int id, String name) { this.id = id; this.name = name; }
+        Student(int id, String name) { this(id, name, null); }
+
+        /**
+         * Creates a student owned by a repository, which is told about enrollment changes.
+         */
+        Student(int id, String name, Repository owner) { this.id = id; this.name = name; this.owner = owner; }
 
         /**
          * Enrolls the student in a course (stored normalized).
          */
-        void addCourse(String course) { courses.add(normalizeCourse(course)); }
+        synchronized void addCourse(String course) {
+            int cid = CourseRegistry.SHARED.intern(course);
+            if (CourseRegistry.contains(courseBits, cid)) return;
+            String code = CourseRegistry.SHARED.code(cid);
+            commit(wal -> wal.course(id, code, true), () -> {
+                courseBits = CourseRegistry.with(courseBits, cid);
+                courses.add(code);
+                if (owner != null) owner.enrolled(this, cid);
+            });
+        }
+
+        /**
+         * Drops a course.
+         * @return true if the student was enrolled in it
+         */
+        synchronized boolean dropCourse(String course) {
+            int cid = CourseRegistry.SHARED.idOf(course);
+            if (!CourseRegistry.contains(courseBits, cid)) return false;
+            String code = CourseRegistry.SHARED.code(cid);
+            commit(wal -> wal.course(id, code, false), () -> {
+                courseBits = CourseRegistry.without(courseBits, cid);
+                courses.remove(code);
+                if (owner != null) owner.unenrolled(this, cid);
+            });
+            return true;
+        }
+
+        /** True if the student is enrolled in the course with the given registry ID. */
+        boolean isEnrolled(int courseId) { return CourseRegistry.contains(courseBits, courseId); }
+
+        /** Registry IDs of the enrolled courses, ascending. */
+        int[] courseIds() { return CourseRegistry.toIds(courseBits); }
 
         /**
-         * Appends a new availability slot.
+         * Adds an availability slot, merging it with any slots it overlaps or touches.
+         * The affected range is found by binary search; a slot already covered changes nothing.
          */
-        void addAvailability(TimeSlot slot) { availability.add(slot); }
+        synchronized void addAvailability(TimeSlot slot) {
+            long[] p = availability.packed;
+            int lo = firstEndingAtOrAfter(p, slot.startMin);
+            int hi = firstStartingAfter(p, slot.endMin);
+            int s = slot.startMin, e = slot.endMin;
+            if (lo < hi) {
+                s = Math.min(s, TimeSlot.startOf(p[lo]));
+                e = Math.max(e, TimeSlot.endOf(p[hi - 1]));
+                if (hi - lo == 1 && p[lo] == TimeSlot.pack(s, e)) return;
+            }
+            TimeSlot merged = s == slot.startMin && e == slot.endMin ? slot : TimeSlot.ofMinutes(s, e);
+            long[] m = availability.mask.clone();
+            WeekMask.add(m, merged);
+            commit(wal -> wal.availability(id, slot, true), () -> {
+                splice(lo, hi, m, merged);
+                availabilityChanged();
+            });
+        }
 
         /**
          * Removes an availability slot by index.
          * @return true if removed
          */
-        boolean removeAvailability(int index) {
-            if (index < 0 || index >= availability.size()) return false;
-            availability.remove(index);
+        synchronized boolean removeAvailability(int index) {
+            Availability a = availability;
+            if (index < 0 || index >= a.slots.size()) return false;
+            TimeSlot gone = a.slots.get(index);
+            long[] m = a.mask.clone();
+            WeekMask.clear(m, gone.startMin, gone.endMin);
+            commit(wal -> wal.availability(id, gone, false), () -> {
+                splice(index, index + 1, m);
+                availabilityChanged();
+            });
+            return true;
+        }
+
+        /**
+         * Marks a window as busy, trimming or splitting any slots it overlaps.
+         * @return true if any availability was removed
+         */
+        synchronized boolean removeAvailability(TimeSlot window) {
+            long[] p = availability.packed;
+            int lo = firstEndingAtOrAfter(p, window.startMin + 1);
+            int hi = firstStartingAfter(p, window.endMin - 1);
+            if (lo >= hi) return false;
+            List<TimeSlot> keep = new ArrayList<>(2);
+            if (TimeSlot.startOf(p[lo]) < window.startMin) keep.add(TimeSlot.ofMinutes(TimeSlot.startOf(p[lo]), window.startMin));
+            if (TimeSlot.endOf(p[hi - 1]) > window.endMin) keep.add(TimeSlot.ofMinutes(window.endMin, TimeSlot.endOf(p[hi - 1])));
+            long[] m = availability.mask.clone();
+            WeekMask.clear(m, window.startMin, window.endMin);
+            TimeSlot[] with = keep.toArray(new TimeSlot[0]);
+            commit(wal -> wal.availability(id, window, false), () -> {
+                splice(lo, hi, m, with);
+                availabilityChanged();
+            });
             return true;
         }
 
-        /**
-         * Compact roster line with counts (not full times).
-         */
-        @Override public String toString() {
-            return String.format("[%d] %s | Courses=%s | Avail=%d slots", id, name, courses, availability.size());
+        /**
+         * Replaces the availability with packed slots that are already canonical (snapshot loading),
+         * building the list and mask in one pass instead of merging slot by slot. Not logged.
+         */
+        synchronized void restoreAvailability(long[] canonical) {
+            List<TimeSlot> slots = new ArrayList<>(canonical.length);
+            long[] m = new long[WeekMask.WORDS];
+            for (long p : canonical) {
+                TimeSlot t = TimeSlot.fromPacked(p);
+                slots.add(t);
+                WeekMask.add(m, t);
+            }
+            availability = new Availability(Collections.unmodifiableList(slots), canonical.clone(), m);
+            availabilityVersion++;
+        }
+
+        /** Version of the availability list; changes whenever a slot is added or removed. */
+        int availabilityVersion() { return availabilityVersion; }
+
+        /** Bumps the version and tells the owning repository (called with the lock held). */
+        private void availabilityChanged() {
+            availabilityVersion++;
+            if (owner != null) owner.availabilityChanged(this);
+        }
+
+        /** Logs a change through the owning repository before applying it; standalone students just apply it. */
+        private void commit(Consumer<WriteAheadLog> record, Runnable change) {
+            if (owner == null) change.run();
+            else owner.commit(record, change);
+        }
+
+        /** Availability slots, sorted and disjoint; an unmodifiable snapshot that later changes do not touch. */
+        List<TimeSlot> availability() { return availability.slots; }
+
+        /** Availability as packed minute-of-week slots: sorted, disjoint, non-touching. Do not modify. */
+        long[] packedAvailability() { return availability.packed; }
+
+        /** Availability as a {@link WeekMask} bitmap. Do not modify. */
+        long[] availabilityMask() { return availability.mask; }
+
+        /**
+         * Replaces slots {@code [lo, hi)} with the given ones, building the new list and packed
+         * form off to the side and publishing them together with {@code mask} in one write.
+         */
+        private void splice(int lo, int hi, long[] mask, TimeSlot... with) {
+            Availability old = availability;
+            int n = old.packed.length - (hi - lo) + with.length;
+            List<TimeSlot> slots = new ArrayList<>(n);
+            slots.addAll(old.slots.subList(0, lo));
+            slots.addAll(Arrays.asList(with));
+            slots.addAll(old.slots.subList(hi, old.slots.size()));
+            long[] p = new long[n];
+            System.arraycopy(old.packed, 0, p, 0, lo);
+            for (int i = 0; i < with.length; i++) p[lo + i] = with[i].packed();
+            System.arraycopy(old.packed, hi, p, lo + with.length, old.packed.length - hi);
+            availability = new Availability(Collections.unmodifiableList(slots), p, mask);
+        }
+
+        /** One published version of a student's availability; never modified after construction. */
+        private static final class Availability {
+            static final Availability EMPTY = new Availability(List.of(), new long[0], new long[WeekMask.WORDS]);
+            final List<TimeSlot> slots;
+            final long[] packed; // same slots in packed form, same order
+            final long[] mask; // 15-minute weekly bitmap of the same slots
+
+            Availability(List<TimeSlot> slots, long[] packed, long[] mask) {
+                this.slots = slots;
+                this.packed = packed;
+                this.mask = mask;
+            }
+        }
+
+        /** Index of the first slot ending at or after {@code minute} (ends are sorted too, as slots are disjoint). */
+        private static int firstEndingAtOrAfter(long[] p, int minute) {
+            int lo = 0, hi = p.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (TimeSlot.endOf(p[mid]) < minute) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        /** Index of the first slot starting after {@code minute}. */
+        private static int firstStartingAfter(long[] p, int minute) {
+            int lo = 0, hi = p.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (TimeSlot.startOf(p[mid]) <= minute) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        /**
+         * Compact roster line with counts (not full times).
+         */
+        @Override public String toString() {
+            return String.format("[%d] %s | Courses=%s | Avail=%d slots", id, name, courses, availability.slots.size());
+        }
+    }
+
+    /**
+     * Immutable insertion-ordered set of ints, for session rosters.
+     * Members are kept once in a primitive array in insertion order; lookups scan it while small,
+     * then binary-search a sorted copy, and for large sessions with dense IDs test a bitmap that
+     * costs no more than the sorted copy would. Adding returns a new set and never touches this one.
+     */
+    static final class IntSet extends AbstractSet<Integer> {
+        static final IntSet EMPTY = new IntSet(new int[0], null, null, 0);
+        private static final int LINEAR_MAX = 8; // scan the members directly up to this size
+        private static final int BITMAP_MIN = 64; // from this size, prefer a bitmap when the IDs are dense
+
+        private final int[] members; // insertion order
+        private final int[] sorted; // ascending copy; null when scanning or using the bitmap
+        private final long[] bits; // bit (v - base) set per member; null unless dense and large
+        private final int base;
+
+        private IntSet(int[] members, int[] sorted, long[] bits, int base) {
+            this.members = members; this.sorted = sorted; this.bits = bits; this.base = base;
+        }
+
+        /** Builds a set from values in iteration order, keeping the first of any duplicates. */
+        static IntSet of(Collection<Integer> values) {
+            if (values == null || values.isEmpty()) return EMPTY;
+            int[] raw = new int[values.size()];
+            int n = 0;
+            for (int v : values) raw[n++] = v;
+            int[] sorted = raw.clone();
+            Arrays.sort(sorted);
+            int u = 0; // squeeze duplicates out of the sorted copy
+            for (int i = 0; i < n; i++) if (u == 0 || sorted[i] != sorted[u - 1]) sorted[u++] = sorted[i];
+            if (u == n) return build(raw, sorted);
+            sorted = Arrays.copyOf(sorted, u);
+            boolean[] seen = new boolean[u];
+            int[] members = new int[u];
+            int m = 0;
+            for (int v : raw) {
+                int at = Arrays.binarySearch(sorted, v);
+                if (!seen[at]) { seen[at] = true; members[m++] = v; }
+            }
+            return build(members, sorted);
+        }
+
+        /** True if the value is a member. */
+        boolean contains(int v) {
+            if (bits != null) {
+                long off = (long) v - base;
+                return off >= 0 && (off >>> 6) < bits.length && (bits[(int) (off >>> 6)] & (1L << off)) != 0;
+            }
+            if (sorted != null) return Arrays.binarySearch(sorted, v) >= 0;
+            for (int m : members) if (m == v) return true;
+            return false;
+        }
+
+        /** Returns this set plus a value that is not yet a member. */
+        IntSet with(int v) {
+            int n = members.length;
+            int[] m = Arrays.copyOf(members, n + 1);
+            m[n] = v;
+            if (bits != null) {
+                long off = (long) v - base;
+                if (off >= 0 && (off >>> 6) < bits.length) {
+                    long[] b = bits.clone();
+                    b[(int) (off >>> 6)] |= 1L << off;
+                    return new IntSet(m, null, b, base);
+                }
+                return build(m, null);
+            }
+            if (sorted == null) return build(m, null);
+            int at = -Arrays.binarySearch(sorted, v) - 1;
+            int[] s = new int[n + 1];
+            System.arraycopy(sorted, 0, s, 0, at);
+            s[at] = v;
+            System.arraycopy(sorted, at, s, at + 1, n - at);
+            return build(m, s);
+        }
+
+        /** Picks the lookup structure for the given members (sorted may be null). */
+        private static IntSet build(int[] members, int[] sorted) {
+            int n = members.length;
+            if (n <= LINEAR_MAX) return new IntSet(members, null, null, 0);
+            if (sorted == null) { sorted = members.clone(); Arrays.sort(sorted); }
+            if (n >= BITMAP_MIN) {
+                long range = (long) sorted[n - 1] - sorted[0] + 1;
+                if (range <= 32L * n) { // no more bits than the sorted copy
+                    long[] b = new long[(int) ((range + range / 4 + 63) >>> 6)]; // headroom for later joins
+                    for (int v : members) {
+                        int off = v - sorted[0];
+                        b[off >>> 6] |= 1L << off;
+                    }
+                    return new IntSet(members, null, b, sorted[0]);
+                }
+            }
+            return new IntSet(members, sorted, null, 0);
+        }
+
+        /** The i-th member in insertion order. */
+        int get(int i) { return members[i]; }
+
+        /** Members in insertion order (a copy). */
+        int[] toIntArray() { return members.clone(); }
+
+        @Override public boolean contains(Object o) { return o instanceof Integer && contains(((Integer) o).intValue()); }
+
+        @Override public int size() { return members.length; }
+
+        @Override public Iterator<Integer> iterator() {
+            return new Iterator<Integer>() {
+                private int i;
+                @Override public boolean hasNext() { return i < members.length; }
+                @Override public Integer next() {
+                    if (i >= members.length) throw new NoSuchElementException();
+                    return members[i++];
+                }
+            };
+        }
+    }
+
+    /**
+     * Represents a study session (course + time) with participants and per-participant confirmations.
+     * Participants/confirmations are tracked by student ID (names are resolved in the CLI for display).
+     * Membership lives in an immutable {@link Roster} swapped with compare-and-set, so joins and
+     * confirmations never block each other and readers always see a consistent snapshot.
+     */
+    static class StudySession {
+        final int id;
+        final int courseId; // CourseRegistry ID
+        final String course; // normalized
+        final TimeSlot time;
+        private final AtomicReference<Roster> roster;
+        private final Repository owner; // keeps the repository's student -> sessions index in step; null if standalone
+
+        /**
+         * Creates a new session with initial participants.
+         */
+        StudySession(int id, String course, TimeSlot time, Collection<Integer> participants) {
+            this(id, course, time, participants, null);
+        }
+
+        /**
+         * Creates a session owned by a repository, which is told about later joins.
+         */
+        StudySession(int id, String course, TimeSlot time, Collection<Integer> participants, Repository owner) {
+            this.id = id; this.time = time; this.owner = owner;
+            this.courseId = CourseRegistry.SHARED.intern(course);
+            this.course = CourseRegistry.SHARED.code(courseId);
+            this.roster = new AtomicReference<>(new Roster(IntSet.of(participants), IntSet.EMPTY));
+        }
+
+        /** Participant IDs in join order (read-only snapshot). */
+        IntSet participantIds() { return roster.get().participants; }
+
+        /** Confirmed participant IDs in confirmation order (read-only snapshot). */
+        IntSet confirmedIds() { return roster.get().confirmed; }
+
+        /** True if the given student is in the participant list. */
+        boolean isParticipant(int studentId) { return roster.get().participants.contains(studentId); }
+
+        /**
+         * Adds a participant (ignored if already in). With a log, the join is appended before the
+         * roster changes; two racing joins of the same student may both be logged, which replays the same.
+         */
+        void addParticipant(int studentId) {
+            if (roster.get().participants.contains(studentId)) return;
+            commit(wal -> wal.join(id, studentId), () -> {
+                Roster cur;
+                do {
+                    cur = roster.get();
+                    if (cur.participants.contains(studentId)) return;
+                } while (!roster.compareAndSet(cur, cur.withParticipant(studentId)));
+                if (owner != null) owner.joined(this, studentId);
+            });
+        }
+
+        /** Confirms attendance for a participant, logging it first like {@link #addParticipant}. */
+        void confirm(int studentId) {
+            Roster r = roster.get();
+            if (!r.participants.contains(studentId) || r.confirmed.contains(studentId)) return;
+            commit(wal -> wal.confirm(id, studentId), () -> {
+                Roster cur;
+                do {
+                    cur = roster.get();
+                    if (cur.confirmed.contains(studentId)) return;
+                } while (!roster.compareAndSet(cur, cur.withConfirmed(studentId)));
+            });
+        }
+
+        /** Logs a change through the owning repository before applying it; standalone sessions just apply it. */
+        private void commit(Consumer<WriteAheadLog> record, Runnable change) {
+            if (owner == null) change.run();
+            else owner.commit(record, change);
+        }
+
+        /** True if everyone in the session has confirmed; O(1) since confirmed is a subset of participants. */
+        boolean isFullyConfirmed() {
+            Roster r = roster.get();
+            return r.participantCount > 0 && r.confirmedCount == r.participantCount;
+        }
+
+        /**
+         * Minimal string summary; the CLI prints human-friendly participant names separately.
+         */
+        @Override public String toString() {
+            return String.format("Session[%d] %s | %s", id, course, time);
+        }
+
+        /**
+         * Immutable participants/confirmations snapshot with cached counts.
+         * Each change copies one primitive {@link IntSet} and shares the other, keeping readers lock-free.
+         */
+        private static final class Roster {
+            final IntSet participants;
+            final IntSet confirmed;
+            final int participantCount;
+            final int confirmedCount;
+
+            Roster(IntSet participants, IntSet confirmed) {
+                this.participants = participants;
+                this.confirmed = confirmed;
+                this.participantCount = participants.size();
+                this.confirmedCount = confirmed.size();
+            }
+
+            Roster withParticipant(int studentId) { return new Roster(participants.with(studentId), confirmed); }
+
+            Roster withConfirmed(int studentId) { return new Roster(participants, confirmed.with(studentId)); }
+        }
+    }
+
+    // ======== REPOSITORY ======== //
+
+    /**
+     * In-memory storage for students and sessions.
+     * Provides CRUD-like helpers and simple searches.
+     * A course -> student-ID index (ordered by ID, i.e. creation order) is kept in step by
+     * {@link Student#addCourse}/{@link Student#dropCourse} so classmate lookups cost O(class size).
+     * Sessions are likewise indexed by course when created, and by participant as students join.
+     * Student names are indexed by lowercase trigram for substring search.
+     *
+     * {@link #concurrent()} builds the same repository on concurrent collections (skip lists
+     * ordered by ID stand in for the insertion-ordered maps) so it can be shared by request threads.
+     *
+     * With a {@link WriteAheadLog} attached, every mutation is appended to it through {@link #commit}
+     * before it takes effect, so other threads never see a change that is not durable and a failed
+     * append changes nothing. The change hooks below only keep the indexes in step.
+     */
+    static class Repository {
+        private final boolean concurrent;
+        private final Map<Integer, Student> students;
+        private final Map<Integer, StudySession> sessions;
+        private final Map<Integer, NavigableSet<Integer>> studentsByCourse; // keyed by course ID
+        private final Map<Integer, List<StudySession>> sessionsByCourse;
+        private final Map<Integer, NavigableMap<Integer, StudySession>> sessionsByStudent;
+        private final Map<String, Set<Integer>> studentsByTrigram;
+        private final Map<Integer, Integer> courseStamps; // bumped when a course's roster or a member's availability changes
+        private final AtomicInteger studentSeq = new AtomicInteger(1);
+        private final AtomicInteger sessionSeq = new AtomicInteger(1);
+        private volatile WriteAheadLog log; // every mutation is appended here before it returns; null = memory only
+        // changes are logged before they are applied; checkpoints wait until none is in between
+        private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+        /** Creates a single-threaded repository. */
+        Repository() { this(false); }
+
+        private Repository(boolean concurrent) {
+            this.concurrent = concurrent;
+            this.students = concurrent ? new ConcurrentSkipListMap<>() : new LinkedHashMap<>();
+            this.sessions = concurrent ? new ConcurrentSkipListMap<>() : new LinkedHashMap<>();
+            this.studentsByCourse = newMap();
+            this.sessionsByCourse = newMap();
+            this.sessionsByStudent = newMap();
+            this.studentsByTrigram = newMap();
+            this.courseStamps = newMap();
+        }
+
+        /** Creates a thread-safe repository; IDs are handed out atomically and iteration stays in ID order. */
+        static Repository concurrent() { return new Repository(true); }
+
+        private <K, V> Map<K, V> newMap() { return concurrent ? new ConcurrentHashMap<>() : new HashMap<>(); }
+
+        private <K, V> NavigableMap<K, V> newSortedMap() { return concurrent ? new ConcurrentSkipListMap<>() : new TreeMap<>(); }
+
+        private <T> NavigableSet<T> newSortedSet() { return concurrent ? new ConcurrentSkipListSet<>() : new TreeSet<>(); }
+
+        /** Makes every later mutation durable in the given log before it returns (null detaches). */
+        void attachLog(WriteAheadLog log) { this.log = log; }
+
+        /**
+         * Runs a group of mutations from this thread and returns once all of them are durable,
+         * sharing one log flush instead of one each (plain call without a log). Inside the group,
+         * changes are queued in the log before they apply but become visible before they are on disk.
+         */
+        void batch(Runnable work) {
+            WriteAheadLog wal = log;
+            if (wal == null) work.run();
+            else wal.batch(work);
+        }
+
+        /**
+         * Length of the log whose every record is already visible in memory (0 without a log).
+         * A snapshot read after this call, replayed forward from here, recovers the full state:
+         * records that raced with the snapshot are simply applied again, which is harmless.
+         */
+        long logCheckpoint() {
+            checkpointLock.writeLock().lock();
+            try {
+                WriteAheadLog wal = log;
+                return wal == null ? 0 : wal.durableLength();
+            } finally {
+                checkpointLock.writeLock().unlock();
+            }
+        }
+
+        /** Creates and stores a new student. */
+        Student createStudent(String name) { return addStudent(new Student(studentSeq.getAndIncrement(), name, this)); }
+
+        /**
+         * Re-creates a student under a known ID (log replay, snapshot loading); later IDs continue
+         * after it. Returns the existing student if the ID is already taken, so replay is repeatable.
+         */
+        Student restoreStudent(int id, String name) {
+            studentSeq.accumulateAndGet(id + 1, Math::max);
+            Student existing = students.get(id);
+            return existing != null ? existing : addStudent(new Student(id, name, this));
+        }
+
+        /** Logs, indexes and publishes a new student; a failed append leaves no trace. */
+        private Student addStudent(Student s) {
+            commit(wal -> wal.student(s.id, s.name), () -> publish(s));
+            return s;
+        }
+
+        /**
+         * Appends a change's record to the log and only then applies the change (just applies it
+         * without a log). If the append throws, the change is never made.
+         */
+        void commit(Consumer<WriteAheadLog> record, Runnable change) {
+            WriteAheadLog wal = log;
+            if (wal == null) {
+                change.run();
+                return;
+            }
+            checkpointLock.readLock().lock(); // logged but not yet visible: hold off checkpoints
+            try {
+                record.accept(wal);
+                change.run();
+            } finally {
+                checkpointLock.readLock().unlock();
+            }
+        }
+
+        /** Makes a student visible, then adds it to the name index, so every ID a search finds resolves. */
+        private void publish(Student s) {
+            students.put(s.id, s);
+            for (String g : trigrams(s.name.toLowerCase(Locale.ROOT))) {
+                studentsByTrigram.compute(g, (k, ids) -> {
+                    if (ids == null) ids = concurrent ? ConcurrentHashMap.newKeySet() : new HashSet<>();
+                    ids.add(s.id);
+                    return ids;
+                });
+            }
+        }
+
+        /** Looks up a student by ID. */
+        Student getStudent(int id) { return students.get(id); }
+
+        /** Returns all students in insertion order. */
+        Collection<Student> allStudents() { return students.values(); }
+
+        /** Creates and stores a new session. */
+        StudySession createSession(String course, TimeSlot time, Collection<Integer> participants) {
+            return addSession(new StudySession(sessionSeq.getAndIncrement(), course, time, participants, this));
+        }
+
+        /**
+         * Re-creates a session under a known ID (log replay, snapshot loading); later IDs continue
+         * after it. Returns the existing session if the ID is already taken.
+         */
+        StudySession restoreSession(int id, String course, TimeSlot time, Collection<Integer> participants) {
+            sessionSeq.accumulateAndGet(id + 1, Math::max);
+            StudySession existing = sessions.get(id);
+            return existing != null ? existing : addSession(new StudySession(id, course, time, participants, this));
+        }
+
+        /** Logs, indexes and publishes a new session; a failed append leaves no trace. */
+        private StudySession addSession(StudySession ss) {
+            commit(wal -> wal.session(ss), () -> publish(ss));
+            return ss;
+        }
+
+        /** Indexes a session, then makes it visible, so nobody can join a session the indexes have not seen. */
+        private void publish(StudySession ss) {
+            for (int pid : ss.participantIds().toIntArray()) index(ss, pid);
+            sessionsByCourse.compute(ss.courseId, (k, list) -> {
+                if (list == null) list = concurrent ? new CopyOnWriteArrayList<>() : new ArrayList<>();
+                list.add(ss);
+                return list;
+            });
+            sessions.put(ss.id, ss);
+        }
+
+        /** Looks up a session by ID. */
+        StudySession getSession(int id) { return sessions.get(id); }
+
+        /** Returns all sessions in insertion order. */
+        Collection<StudySession> allSessions() { return sessions.values(); }
+
+        /** Returns a read-only view of the sessions a student participates in, in creation order. */
+        Collection<StudySession> sessionsFor(int studentId) {
+            NavigableMap<Integer, StudySession> mine = sessionsByStudent.get(studentId);
+            return mine == null ? Collections.emptyList() : Collections.unmodifiableCollection(mine.values());
+        }
+
+        /**
+         * Returns classmates (excluding the given student) enrolled in a course.
+         */
+        List<Student> classmatesInCourse(int studentId, String course) {
+            return classmatesInCourse(studentId, CourseRegistry.SHARED.idOf(course));
+        }
+
+        /** Same as {@link #classmatesInCourse(int, String)} for a course registry ID. */
+        List<Student> classmatesInCourse(int studentId, int courseId) {
+            Set<Integer> ids = studentsByCourse.get(courseId);
+            if (ids == null) return new ArrayList<>();
+            List<Student> res = new ArrayList<>(ids.size());
+            for (int id : ids) if (id != studentId) res.add(students.get(id));
+            return res;
+        }
+
+        /** Returns everyone enrolled in a course, in ID order. */
+        List<Student> studentsInCourse(String course) {
+            Set<Integer> ids = studentsByCourse.get(CourseRegistry.SHARED.idOf(course));
+            if (ids == null) return new ArrayList<>();
+            List<Student> res = new ArrayList<>(ids.size());
+            for (int id : ids) res.add(students.get(id));
+            return res;
+        }
+
+        /** Index hook: the student was enrolled in a course. */
+        void enrolled(Student s, int courseId) {
+            studentsByCourse.compute(courseId, (k, ids) -> {
+                if (ids == null) ids = newSortedSet();
+                ids.add(s.id);
+                return ids;
+            });
+            courseStamps.merge(courseId, 1, Integer::sum);
+        }
+
+        /** Index hook: the student dropped a course. */
+        void unenrolled(Student s, int courseId) {
+            studentsByCourse.computeIfPresent(courseId, (k, ids) -> {
+                ids.remove(s.id);
+                return ids.isEmpty() ? null : ids;
+            });
+            courseStamps.merge(courseId, 1, Integer::sum);
+        }
+
+        /** Change hook: the student's availability changed, which affects matches in all their courses. */
+        void availabilityChanged(Student s) {
+            for (int c : s.courseIds()) courseStamps.merge(c, 1, Integer::sum);
+        }
+
+        /**
+         * Change stamp of a course: differs from an earlier reading iff its roster or
+         * a member's availability changed in between.
+         */
+        int courseStamp(int courseId) { return courseStamps.getOrDefault(courseId, 0); }
+
+        /** Change hook: the student joined the session after it was created. */
+        void joined(StudySession ss, int studentId) { index(ss, studentId); }
+
+        /** Adds the session to the participant's student -> sessions index. */
+        private void index(StudySession ss, int studentId) {
+            sessionsByStudent.computeIfAbsent(studentId, k -> newSortedMap()).put(ss.id, ss);
+        }
+
+        /**
+         * Finds sessions by course code.
+         * @return read-only live view in creation order (copy it before creating sessions mid-iteration)
+         */
+        List<StudySession> searchSessionsByCourse(String course) {
+            List<StudySession> res = sessionsByCourse.get(CourseRegistry.SHARED.idOf(course));
+            return res == null ? Collections.emptyList() : Collections.unmodifiableList(res);
+        }
+
+        /**
+         * Finds sessions where any participant's name contains the substring.
+         * Queries of 3+ characters intersect trigram posting lists and verify the few candidates;
+         * shorter ones fall back to scanning student names (still never all sessions).
+         */
+        List<StudySession> searchSessionsByStudentName(String nameSubstr) {
+            String q = nameSubstr.toLowerCase(Locale.ROOT);
+            NavigableMap<Integer, StudySession> hits = new TreeMap<>();
+            for (Student st : nameCandidates(q)) {
+                if (st.name.toLowerCase(Locale.ROOT).contains(q)) {
+                    NavigableMap<Integer, StudySession> mine = sessionsByStudent.get(st.id);
+                    if (mine != null) hits.putAll(mine);
+                }
+            }
+            return new ArrayList<>(hits.values());
+        }
+
+        /**
+         * Students whose names may contain the (lowercase) query; a superset that callers must verify.
+         */
+        private Collection<Student> nameCandidates(String q) {
+            if (q.length() < 3) return students.values();
+            List<Set<Integer>> postings = new ArrayList<>();
+            for (String g : trigrams(q)) {
+                Set<Integer> ids = studentsByTrigram.get(g);
+                if (ids == null) return Collections.emptyList();
+                postings.add(ids);
+            }
+            postings.sort(Comparator.comparingInt(Set::size));
+            List<Student> res = new ArrayList<>();
+            outer:
+            for (int id : postings.get(0)) {
+                for (int i = 1; i < postings.size(); i++) if (!postings.get(i).contains(id)) continue outer;
+                res.add(students.get(id));
+            }
+            return res;
+        }
+
+        /** Distinct 3-character substrings of a string. */
+        private static Set<String> trigrams(String s) {
+            Set<String> res = new HashSet<>();
+            for (int i = 0; i + 3 <= s.length(); i++) res.add(s.substring(i, i + 3));
+            return res;
+        }
+    }
+
+    // ======== PERSISTENCE ======== //
+
+    /**
+     * Append-only binary log of repository mutations with group commit.
+     * Each record is framed as [length][CRC32][type + fields]. Callers append from the repository's
+     * change hooks and block until their record is on disk; a single writer thread drains everything
+     * appended so far in one write and one fsync, so concurrent mutations share a flush instead of
+     * paying one each. Replay applies records in order and stops at the first torn or corrupt frame,
+     * which {@link #open} then truncates away.
+     */
+    static final class WriteAheadLog implements Closeable {
+        private static final byte STUDENT = 1, ENROLL = 2, DROP = 3, AVAIL_ADD = 4, AVAIL_REMOVE = 5,
+                SESSION = 6, JOIN = 7, CONFIRM = 8;
+        private static final int MAX_RECORD = 1 << 24; // a larger length can only be a corrupt frame
+
+        private final FileChannel channel;
+        private final Thread writer;
+        private final Object lock = new Object();
+        private ByteArrayOutputStream pending = new ByteArrayOutputStream(4096); // guarded by lock
+        private long appended; // sequence number of the last queued record
+        private long durable; // sequence number of the last record known to be on disk
+        private long syncs; // flushes performed
+        private long durableBytes; // file length covered by completed flushes
+        private IOException failure;
+        private boolean closed;
+        private final ThreadLocal<long[]> batch = new ThreadLocal<>(); // last queued record inside batch()
+
+        /** Opens (creating if needed) a log for appending and starts its writer thread. */
+        WriteAheadLog(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            this.durableBytes = channel.size();
+            this.writer = new Thread(this::drain, "wal-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        /**
+         * Replays an existing log into an empty repository, drops any torn tail, and attaches the
+         * log so later mutations are appended to it.
+         */
+        static WriteAheadLog open(Path file, Repository repo) throws IOException { return open(file, repo, 0); }
+
+        /**
+         * Same as {@link #open(Path, Repository)} on top of a loaded snapshot: replays from the
+         * snapshot's log offset instead of the beginning.
+         */
+        static WriteAheadLog open(Path file, Repository repo, long from) throws IOException {
+            long valid = replay(file, repo, from);
+            if (Files.exists(file) && Files.size(file) > valid) {
+                try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) { ch.truncate(valid); }
+            }
+            WriteAheadLog log = new WriteAheadLog(file);
+            repo.attachLog(log);
+            return log;
+        }
+
+        /**
+         * Applies every intact record of the log to the repository (which must not have a log attached).
+         * @return length in bytes of the intact prefix
+         */
+        static long replay(Path file, Repository repo) throws IOException { return replay(file, repo, 0); }
+
+        /**
+         * Applies the intact records from the given byte offset on. Only a torn or checksum-failing
+         * tail ends the intact prefix; a checksummed record that cannot be applied means the log
+         * (or this code) is wrong, so it fails instead of dropping the acknowledged records after it.
+         * @return length in bytes of the intact prefix (including the skipped part)
+         * @throws IOException naming the record's offset if a checksummed record cannot be applied
+         */
+        static long replay(Path file, Repository repo, long from) throws IOException {
+            long size = Files.exists(file) ? Files.size(file) : 0;
+            if (size < from) throw new IOException("Log " + file + " is shorter than the snapshot expects (" + size + " < " + from + ")");
+            if (size == 0) return 0;
+            long valid = from;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                in.skipNBytes(from);
+                CRC32 crc = new CRC32();
+                while (true) {
+                    int len, sum;
+                    byte[] body;
+                    try {
+                        len = in.readInt();
+                        sum = in.readInt();
+                        if (len <= 0 || len > MAX_RECORD) break;
+                        body = new byte[len];
+                        in.readFully(body);
+                    } catch (EOFException torn) {
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(body);
+                    if ((int) crc.getValue() != sum) break;
+                    try {
+                        apply(new DataInputStream(new ByteArrayInputStream(body)), repo);
+                    } catch (IOException | RuntimeException e) {
+                        throw new IOException("Log " + file + ": record at offset " + valid + " cannot be applied: " + e, e);
+                    }
+                    valid += 8 + len;
+                }
+            }
+            return valid;
+        }
+
+        /** Re-executes one record against the repository. */
+        private static void apply(DataInputStream in, Repository repo) throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case STUDENT: repo.restoreStudent(in.readInt(), in.readUTF()); break;
+                case ENROLL: student(repo, in.readInt()).addCourse(in.readUTF()); break;
+                case DROP: student(repo, in.readInt()).dropCourse(in.readUTF()); break;
+                case AVAIL_ADD: student(repo, in.readInt()).addAvailability(TimeSlot.ofMinutes(in.readInt(), in.readInt())); break;
+                case AVAIL_REMOVE: student(repo, in.readInt()).removeAvailability(TimeSlot.ofMinutes(in.readInt(), in.readInt())); break;
+                case SESSION: {
+                    int id = in.readInt();
+                    String course = in.readUTF();
+                    TimeSlot time = TimeSlot.ofMinutes(in.readInt(), in.readInt());
+                    int n = in.readInt();
+                    List<Integer> participants = new ArrayList<>(n);
+                    for (int i = 0; i < n; i++) participants.add(in.readInt());
+                    repo.restoreSession(id, course, time, participants);
+                    break;
+                }
+                case JOIN: session(repo, in.readInt()).addParticipant(in.readInt()); break;
+                case CONFIRM: {
+                    // a confirm can reach the log just before the join it depends on, so join first
+                    StudySession ss = session(repo, in.readInt());
+                    int studentId = in.readInt();
+                    ss.addParticipant(studentId);
+                    ss.confirm(studentId);
+                    break;
+                }
+                default: throw new IOException("Unknown log record type " + type);
+            }
+        }
+
+        /** Looks up a student a record refers to. */
+        private static Student student(Repository repo, int id) throws IOException {
+            Student s = repo.getStudent(id);
+            if (s == null) throw new IOException("Log refers to unknown student " + id);
+            return s;
+        }
+
+        /** Looks up a session a record refers to. */
+        private static StudySession session(Repository repo, int id) throws IOException {
+            StudySession ss = repo.getSession(id);
+            if (ss == null) throw new IOException("Log refers to unknown session " + id);
+            return ss;
+        }
+
+        /** Logs a new student. */
+        void student(int id, String name) { append(new Record(STUDENT).i(id).s(name)); }
+
+        /** Logs an enrollment or a drop. */
+        void course(int studentId, String course, boolean enrolled) { append(new Record(enrolled ? ENROLL : DROP).i(studentId).s(course)); }
+
+        /** Logs an availability window added or freed. */
+        void availability(int studentId, TimeSlot window, boolean added) {
+            append(new Record(added ? AVAIL_ADD : AVAIL_REMOVE).i(studentId).i(window.startMin).i(window.endMin));
+        }
+
+        /** Logs a new session with its initial participants. */
+        void session(StudySession ss) {
+            int[] ids = ss.participantIds().toIntArray();
+            Record r = new Record(SESSION).i(ss.id).s(ss.course).i(ss.time.startMin).i(ss.time.endMin).i(ids.length);
+            for (int id : ids) r.i(id);
+            append(r);
+        }
+
+        /** Logs a join. */
+        void join(int sessionId, int studentId) { append(new Record(JOIN).i(sessionId).i(studentId)); }
+
+        /** Logs a confirmation. */
+        void confirm(int sessionId, int studentId) { append(new Record(CONFIRM).i(sessionId).i(studentId)); }
+
+        /** Number of fsyncs so far; below the number of records whenever commits were grouped. */
+        long syncs() { synchronized (lock) { return syncs; } }
+
+        /** Length of the log file that is known to be on disk. */
+        long durableLength() { synchronized (lock) { return durableBytes; } }
+
+        /**
+         * Queues a record and waits until the writer has flushed it.
+         * @throws UncheckedIOException if the log cannot be written
+         */
+        private void append(Record r) {
+            byte[] body = r.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            synchronized (lock) {
+                if (closed) throw new IllegalStateException("Log is closed");
+                if (failure != null) throw new UncheckedIOException(failure);
+                writeInt(pending, body.length);
+                writeInt(pending, (int) crc.getValue());
+                pending.write(body, 0, body.length);
+                long seq = ++appended;
+                lock.notifyAll();
+                long[] deferred = batch.get();
+                if (deferred != null) deferred[0] = seq;
+                else await(seq);
+            }
+        }
+
+        /**
+         * Runs work on this thread with its records queued but not waited for, then waits once
+         * until all of them are on disk, so a bulk load pays one flush per batch instead of per record.
+         * @throws UncheckedIOException if the log cannot be written
+         */
+        void batch(Runnable work) {
+            if (batch.get() != null) { work.run(); return; } // already inside a batch
+            long[] last = new long[1];
+            batch.set(last);
+            try {
+                work.run();
+            } finally {
+                batch.remove();
+            }
+            synchronized (lock) { await(last[0]); }
+        }
+
+        /** Waits (holding the lock) until the given record is flushed; survives interrupts since it is already queued. */
+        private void await(long seq) {
+            boolean interrupted = false;
+            while (durable < seq && failure == null) {
+                try { lock.wait(); } catch (InterruptedException e) { interrupted = true; }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            if (durable < seq) throw new UncheckedIOException(failure);
+        }
+
+        /** Writer loop: swaps out everything queued, writes it, fsyncs once, then releases the waiters. */
+        private void drain() {
+            ByteArrayOutputStream spare = new ByteArrayOutputStream(4096);
+            OutputStream out = Channels.newOutputStream(channel);
+            while (true) {
+                ByteArrayOutputStream batch;
+                long upTo;
+                synchronized (lock) {
+                    while (pending.size() == 0 && !closed) {
+                        try { lock.wait(); } catch (InterruptedException e) { return; }
+                    }
+                    if (pending.size() == 0) return; // closed and drained
+                    batch = pending;
+                    pending = spare;
+                    upTo = appended;
+                }
+                int bytes = batch.size();
+                try {
+                    batch.writeTo(out);
+                    channel.force(false);
+                } catch (IOException e) {
+                    synchronized (lock) { failure = e; lock.notifyAll(); }
+                    return;
+                }
+                batch.reset();
+                spare = batch;
+                synchronized (lock) {
+                    durable = upTo;
+                    durableBytes += bytes;
+                    syncs++;
+                    lock.notifyAll();
+                }
+            }
+        }
+
+        /** Flushes what is queued, stops the writer and closes the file. */
+        @Override public void close() throws IOException {
+            synchronized (lock) {
+                closed = true;
+                lock.notifyAll();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+
+        /** Writes a big-endian int to a byte buffer. */
+        private static void writeInt(ByteArrayOutputStream out, int v) {
+            out.write(v >>> 24); out.write(v >>> 16); out.write(v >>> 8); out.write(v);
+        }
+
+        /** Small builder for one record body. */
+        private static final class Record {
+            private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            private final DataOutputStream out = new DataOutputStream(bytes);
+
+            Record(byte type) { bytes.write(type); }
+
+            Record i(int v) {
+                writeInt(bytes, v);
+                return this;
+            }
+
+            Record s(String v) {
+                try { out.writeUTF(v); } catch (IOException e) { throw new UncheckedIOException(e); }
+                return this;
+            }
+
+            byte[] toByteArray() { return bytes.toByteArray(); }
+        }
+    }
+
+    /**
+     * Compact binary image of all students, availability and sessions, for fast restarts.
+     * Layout (big-endian): magic, log offset, students, sessions, then the course table and its
+     * position as the last 8 bytes, so the writer can stream in one pass and record each course
+     * as a table index. {@link #load} maps the file and rebuilds the repository in one sequential
+     * pass; replaying the log from the recorded offset then brings it fully up to date.
+     */
+    static final class Snapshot {
+        private static final int MAGIC = 0x53425331; // "SBS1"
+
+        private Snapshot() {}
+
+        /**
+         * Writes a snapshot of the repository, atomically replacing the file.
+         * Safe while other threads mutate a {@link Repository#concurrent()} repository.
+         */
+        static void write(Repository repo, Path file) throws IOException {
+            long walOffset = repo.logCheckpoint(); // before reading any state
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16));
+                out.writeInt(MAGIC);
+                out.writeLong(walOffset);
+                List<Student> students = new ArrayList<>(repo.allStudents());
+                out.writeInt(students.size());
+                for (Student s : students) {
+                    out.writeInt(s.id);
+                    writeString(out, s.name);
+                    List<String> enrolled = new ArrayList<>(s.courses); // enrollment order, as the CLI shows it
+                    out.writeInt(enrolled.size());
+                    for (String c : enrolled) out.writeInt(CourseRegistry.SHARED.idOf(c));
+                    long[] slots = s.packedAvailability();
+                    out.writeInt(slots.length);
+                    for (long p : slots) out.writeLong(p);
+                }
+                List<StudySession> sessions = new ArrayList<>(repo.allSessions());
+                out.writeInt(sessions.size());
+                for (StudySession ss : sessions) {
+                    out.writeInt(ss.id);
+                    out.writeInt(ss.courseId);
+                    out.writeLong(ss.time.packed());
+                    writeInts(out, ss.participantIds().toIntArray());
+                    writeInts(out, ss.confirmedIds().toIntArray());
+                }
+                // registry IDs are table indexes; read its size last so every ID written above is covered
+                long tablePos = out.size();
+                int courses = CourseRegistry.SHARED.size();
+                out.writeInt(courses);
+                for (int c = 0; c < courses; c++) writeString(out, CourseRegistry.SHARED.code(c));
+                out.writeLong(tablePos);
+                out.flush();
+                ch.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Memory-maps a snapshot and loads it into an empty repository.
+         * @return the log offset to replay from
+         */
+        static long load(Path file, Repository repo) throws IOException {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = ch.size();
+                if (size > Integer.MAX_VALUE) throw new IOException("Snapshot too large to map: " + size + " bytes");
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (size < 24 || buf.getInt(0) != MAGIC) throw new IOException("Not a snapshot: " + file);
+                try {
+                    buf.position((int) buf.getLong((int) size - 8));
+                    String[] courses = new String[buf.getInt()];
+                    for (int c = 0; c < courses.length; c++) courses[c] = readString(buf);
+
+                    buf.position(4);
+                    long walOffset = buf.getLong();
+                    for (int n = buf.getInt(); n > 0; n--) {
+                        Student s = repo.restoreStudent(buf.getInt(), readString(buf));
+                        for (int k = buf.getInt(); k > 0; k--) s.addCourse(courses[buf.getInt()]);
+                        long[] slots = new long[buf.getInt()];
+                        for (int k = 0; k < slots.length; k++) slots[k] = buf.getLong();
+                        s.restoreAvailability(slots);
+                    }
+                    for (int n = buf.getInt(); n > 0; n--) {
+                        int id = buf.getInt();
+                        String course = courses[buf.getInt()];
+                        TimeSlot time = TimeSlot.fromPacked(buf.getLong());
+                        List<Integer> participants = new ArrayList<>();
+                        for (int k = buf.getInt(); k > 0; k--) participants.add(buf.getInt());
+                        StudySession ss = repo.restoreSession(id, course, time, participants);
+                        for (int k = buf.getInt(); k > 0; k--) ss.confirm(buf.getInt());
+                    }
+                    return walOffset;
+                } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                    throw new IOException("Corrupt snapshot: " + file, e);
+                }
+            }
+        }
+
+        /**
+         * Writes a snapshot every {@code periodSeconds} on a daemon thread until the returned
+         * executor is shut down. Failures are reported and retried at the next period.
+         */
+        static ScheduledExecutorService schedule(Repository repo, Path file, long periodSeconds) {
+            ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "snapshot-writer");
+                t.setDaemon(true);
+                return t;
+            });
+            timer.scheduleWithFixedDelay(() -> {
+                try {
+                    write(repo, file);
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Snapshot failed: " + e.getMessage()); // a thrown task would never run again
+                }
+            }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+            return timer;
+        }
+
+        /** Writes a length-prefixed UTF-8 string. */
+        private static void writeString(DataOutputStream out, String s) throws IOException {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(b.length);
+            out.write(b);
+        }
+
+        /** Reads a string written by {@link #writeString}. */
+        private static String readString(ByteBuffer buf) {
+            byte[] b = new byte[buf.getInt()];
+            buf.get(b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+
+        /** Writes a count-prefixed int array. */
+        private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+            out.writeInt(values.length);
+            for (int v : values) out.writeInt(v);
+        }
+    }
+
+    // ======== CONTROLLERS ======== //
+
+    /**
+     * How {@link SessionController#suggestMatches} computes overlaps.
+     * PAIRWISE is exact to the minute; BITMASK ANDs 15-minute {@link WeekMask}s, so windows
+     * are rounded inward to bucket boundaries; SWEEP merges the two sorted availability lists in
+     * one linear pass and gives the same results as PAIRWISE.
+     */
+    enum MatchMode { PAIRWISE, BITMASK, SWEEP }
+
+    /**
+     * Bounded LRU cache of {@link SessionController#suggestMatches} results per (student, course, engine).
+     * Each entry remembers the student's availability version and the course's change stamp when it
+     * was computed; a lookup with different values is a miss, so an entry goes stale exactly when
+     * either party's availability or the course roster changes.
+     */
+    static class MatchCache {
+        private final int capacity;
+        private final LinkedHashMap<String, Entry> entries;
+        private long hits;
+        private long misses;
+
+        /** Creates a cache holding at most {@code capacity} results (0 disables caching). */
+        MatchCache(int capacity) {
+            this.capacity = capacity;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) { return size() > MatchCache.this.capacity; }
+            };
+        }
+
+        /** Cache key for a student, course ID and engine. */
+        static String key(int studentId, int courseId, MatchMode mode) { return studentId + "|" + courseId + "|" + mode; }
+
+        /** Cache key for a top-K ranking with its filters (day bit 0 = Monday). */
+        static String topKey(int studentId, int courseId, int k, int minWindowMinutes, int dayBits) {
+            return studentId + "|" + courseId + "|top|" + k + "|" + minWindowMinutes + "|" + dayBits;
+        }
+
+        /** Returns the cached result if it was computed at the same version/stamp, else null. */
+        synchronized Map<Student, List<TimeSlot>> get(String key, int availabilityVersion, int courseStamp) {
+            Entry e = entries.get(key);
+            if (e != null && e.availabilityVersion == availabilityVersion && e.courseStamp == courseStamp) {
+                hits++;
+                return e.result;
+            }
+            if (e != null) entries.remove(key);
+            misses++;
+            return null;
+        }
+
+        /** Like {@link #get} for opportunistic reuse: leaves the hit/miss statistics and stale entries alone. */
+        synchronized Map<Student, List<TimeSlot>> peek(String key, int availabilityVersion, int courseStamp) {
+            Entry e = entries.get(key);
+            return e != null && e.availabilityVersion == availabilityVersion && e.courseStamp == courseStamp ? e.result : null;
+        }
+
+        /** Stores a result along with the version/stamp read before it was computed. */
+        synchronized void put(String key, int availabilityVersion, int courseStamp, Map<Student, List<TimeSlot>> result) {
+            if (capacity > 0) entries.put(key, new Entry(result, availabilityVersion, courseStamp));
+        }
+
+        /** Number of lookups answered from the cache. */
+        synchronized long hits() { return hits; }
+
+        /** Number of lookups that had to recompute. */
+        synchronized long misses() { return misses; }
+
+        /** Current number of entries. */
+        synchronized int size() { return entries.size(); }
+
+        private static final class Entry {
+            final Map<Student, List<TimeSlot>> result;
+            final int availabilityVersion;
+            final int courseStamp;
+
+            Entry(Map<Student, List<TimeSlot>> result, int availabilityVersion, int courseStamp) {
+                this.result = result; this.availabilityVersion = availabilityVersion; this.courseStamp = courseStamp;
+            }
+        }
+    }
+
+    /**
+     * A time window together with how many of the students considered are free for all of it.
+     */
+    static class GroupWindow {
+        final TimeSlot time;
+        final int available;
+
+        GroupWindow(TimeSlot time, int available) { this.time = time; this.available = available; }
+
+        /** Window length in minutes. */
+        int minutes() { return time.endMin - time.startMin; }
+
+        @Override public String toString() { return time + " (" + available + " free)"; }
+    }
+
+    /**
+     * A ranked suggestion from {@link SessionController#topMatches}: a classmate, the shared
+     * windows that passed the filters, and their total length.
+     */
+    static class Match {
+        final Student peer;
+        final List<TimeSlot> windows;
+        final int totalMinutes;
+
+        Match(Student peer, List<TimeSlot> windows, int totalMinutes) {
+            this.peer = peer; this.windows = windows; this.totalMinutes = totalMinutes;
+        }
+
+        @Override public String toString() { return peer + " (" + totalMinutes + " min)"; }
+    }
+
+    /**
+     * Handles student profile creation.
+     */
+    static class ProfileController {
+        private final Repository repo; ProfileController(Repository r) { this.repo = r; }
+
+        /** Creates a student and enrolls them in initial courses. */
+        Student createProfile(String name, List<String> initialCourses) {
+            Student s = repo.createStudent(name);
+            for (String c : initialCourses) s.addCourse(c);
+            return s;
+        }
+
+        /** Unenrolls a student from a course; returns false if they were not enrolled. */
+        boolean dropCourse(int studentId, String course) { Student s = repo.getStudent(studentId); return s!=null && s.dropCourse(course); }
+    }
+
+    /**
+     * Handles adding/removing availability.
+     */
+    static class AvailabilityController {
+        private final Repository repo; AvailabilityController(Repository r) { this.repo = r; }
+
+        /** Adds an availability slot to the given student. */
+        void addAvailability(int studentId, TimeSlot slot) { Student s = repo.getStudent(studentId); if (s!=null) s.addAvailability(slot); }
+
+        /** Removes availability by index. */
+        boolean removeAvailability(int studentId, int index) { Student s = repo.getStudent(studentId); return s!=null && s.removeAvailability(index); }
+
+        /** Marks a window as busy, trimming or splitting the student's slots around it. */
+        boolean removeAvailability(int studentId, TimeSlot window) { Student s = repo.getStudent(studentId); return s!=null && s.removeAvailability(window); }
+    }
+
+    /**
+     * Handles session operations and match suggestions.
+     */
+    static class SessionController {
+        private final Repository repo; SessionController(Repository r) { this(r, DEFAULT_CACHE_CAPACITY); }
+        private final MatchCache cache;
+        private volatile MatchMode matchMode = MatchMode.PAIRWISE;
+        private volatile boolean parallel = false;
+
+        /** Default number of suggestMatches results kept in the match cache. */
+        static final int DEFAULT_CACHE_CAPACITY = 1024;
+
+        /** Creates a controller with a match cache of the given size (0 disables caching). */
+        SessionController(Repository r, int cacheCapacity) { this.repo = r; this.cache = new MatchCache(cacheCapacity); }
+
+        /** Below this many classmates a parallel request still runs on the caller's thread. */
+        static final int PARALLEL_THRESHOLD = 512;
+        /** Chunk size at which fork-join tasks stop splitting. */
+        private static final int PARALLEL_CHUNK = 128;
+
+        /** Selects the engine used by {@link #suggestMatches(int, String)} (e.g. for A/B comparisons). */
+        void setMatchMode(MatchMode mode) { this.matchMode = Objects.requireNonNull(mode); }
+
+        /** Returns the engine used by {@link #suggestMatches(int, String)}. */
+        MatchMode matchMode() { return matchMode; }
+
+        /** Spreads large classmate lists across the common fork-join pool for both {@link #suggestMatches} and {@link #topMatches} (output order is unchanged). */
+        void setParallel(boolean parallel) { this.parallel = parallel; }
+
+        /** The cache behind {@link #suggestMatches} (for hit/miss statistics). */
+        MatchCache matchCache() { return cache; }
+
+        /** Returns classmates in a given course for the student. */
+        List<Student> classmates(int studentId, String course) { return repo.classmatesInCourse(studentId, course); }
+
+        /** Returns all sessions. */
+        Collection<StudySession> allSessions() { return repo.allSessions(); }
+
+        /** Returns the sessions a student participates in. */
+        Collection<StudySession> sessionsFor(int studentId) { return repo.sessionsFor(studentId); }
+
+        /** Searches sessions by course code. */
+        List<StudySession> searchByCourse(String course) { return repo.searchSessionsByCourse(course); }
+
+        /** Searches sessions by participant name substring. */
+        List<StudySession> searchByStudentName(String nameSubstr) { return repo.searchSessionsByStudentName(nameSubstr); }
+
+        /** Returns a session by ID. */
+        StudySession getSession(int id) { return repo.getSession(id); }
+
+        /** Creates a new session. */
+        StudySession create(String course, TimeSlot time, Collection<Integer> participants) { return repo.createSession(course, time, participants); }
+
+        /** Adds the student to a session's participant list. */
+        void join(int sessionId, int studentId) { StudySession s = repo.getSession(sessionId); if (s!=null) s.addParticipant(studentId); }
+
+        /** Marks the session as confirmed by the student. */
+        void confirm(int sessionId, int studentId) { StudySession s = repo.getSession(sessionId); if (s!=null) s.confirm(studentId); }
+
+        /**
+         * Computes overlapping availability windows between the active student and classmates in the same course.
+         * Returns a map from classmate -> list of overlapped time slots.
+         */
+        Map<Student, List<TimeSlot>> suggestMatches(int studentId, String course) {
+            return suggestMatches(studentId, course, matchMode);
+        }
+
+        /**
+         * Same as {@link #suggestMatches(int, String)} using the given overlap engine.
+         * Results are cached until either party's availability or the course roster changes,
+         * so the returned map is read-only.
+         */
+        Map<Student, List<TimeSlot>> suggestMatches(int studentId, String course, MatchMode mode) {
+            Student me = repo.getStudent(studentId);
+            if (me == null) return new LinkedHashMap<>();
+            int c = CourseRegistry.SHARED.idOf(course);
+            if (c < 0) return new LinkedHashMap<>(); // nobody has ever enrolled in it
+            // read before computing: a change made meanwhile leaves a stale entry, never a wrong hit
+            int version = me.availabilityVersion();
+            int stamp = repo.courseStamp(c);
+            String key = MatchCache.key(studentId, c, mode);
+            Map<Student, List<TimeSlot>> res = cache.get(key, version, stamp);
+            if (res != null) return res;
+            Map<Student, List<TimeSlot>> computed = computeMatches(me, c, mode);
+            computed.replaceAll((peer, windows) -> List.copyOf(windows)); // shared by every later hit
+            res = Collections.unmodifiableMap(computed);
+            cache.put(key, version, stamp, res);
+            return res;
+        }
+
+        /** Runs the engine (in parallel when enabled and the class is large). */
+        private Map<Student, List<TimeSlot>> computeMatches(Student me, int courseId, MatchMode mode) {
+            List<Student> peers = repo.classmatesInCourse(me.id, courseId);
+            if (parallel && peers.size() >= PARALLEL_THRESHOLD) {
+                return ForkJoinPool.commonPool().invoke(new MatchTask(me, peers, 0, peers.size(), mode));
+            }
+            Map<Student, List<TimeSlot>> res = new LinkedHashMap<>();
+            runEngine(me, peers, mode, res);
+            return res;
+        }
+
+        /** Computes overlaps for a list of peers with the chosen engine, in list order. */
+        private static void runEngine(Student me, List<Student> peers, MatchMode mode, Map<Student, List<TimeSlot>> res) {
+            switch (mode) {
+                case BITMASK: bitmaskMatches(me, peers, res); break;
+                case SWEEP: sweepMatches(me, peers, res); break;
+                default: pairwiseMatches(me, peers, res);
+            }
+        }
+
+        /**
+         * Halves a range of the classmate list until chunks are small, runs the engine on each
+         * chunk, and appends the right half's results after the left's so order stays deterministic.
+         */
+        private static final class MatchTask extends RecursiveTask<Map<Student, List<TimeSlot>>> {
+            private static final long serialVersionUID = 1L;
+
+            private final Student me;
+            private final List<Student> peers;
+            private final int lo, hi;
+            private final MatchMode mode;
+
+            MatchTask(Student me, List<Student> peers, int lo, int hi, MatchMode mode) {
+                this.me = me; this.peers = peers; this.lo = lo; this.hi = hi; this.mode = mode;
+            }
+
+            @Override protected Map<Student, List<TimeSlot>> compute() {
+                if (hi - lo <= PARALLEL_CHUNK) {
+                    Map<Student, List<TimeSlot>> res = new LinkedHashMap<>();
+                    runEngine(me, peers.subList(lo, hi), mode, res);
+                    return res;
+                }
+                int mid = (lo + hi) >>> 1;
+                MatchTask left = new MatchTask(me, peers, lo, mid, mode);
+                left.fork();
+                Map<Student, List<TimeSlot>> right = new MatchTask(me, peers, mid, hi, mode).compute();
+                Map<Student, List<TimeSlot>> res = left.join();
+                res.putAll(right);
+                return res;
+            }
+        }
+
+        /** Intersects every pair of packed slots, then merges the hits per peer. */
+        private static void pairwiseMatches(Student me, List<Student> peers, Map<Student, List<TimeSlot>> res) {
+            long[] mine = me.packedAvailability();
+            long[] hits = new long[16];
+            for (Student peer : peers) {
+                long[] theirs = peer.packedAvailability();
+                if (hits.length < mine.length * theirs.length) hits = new long[mine.length * theirs.length];
+                int n = 0;
+                for (long a : mine) for (long b : theirs) {
+                    long inter = TimeSlot.intersect(a, b);
+                    if (inter != TimeSlot.NONE) hits[n++] = inter;
+                }
+                if (n == 0) continue;
+                n = mergeAdjacent(hits, n, hits);
+                // Objects are only built for the merged overlaps, which are what the CLI prints.
+                List<TimeSlot> overlaps = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) overlaps.add(TimeSlot.fromPacked(hits[i]));
+                res.put(peer, overlaps);
+            }
+        }
+
+        /**
+         * Walks both students' sorted, disjoint availability with two cursors: O(m + n) per peer,
+         * and the output is already sorted and merged.
+         */
+        private static void sweepMatches(Student me, List<Student> peers, Map<Student, List<TimeSlot>> res) {
+            long[] mine = me.packedAvailability();
+            long[] hits = new long[16];
+            for (Student peer : peers) {
+                long[] theirs = peer.packedAvailability();
+                if (hits.length < mine.length + theirs.length) hits = new long[mine.length + theirs.length];
+                int n = sweep(mine, theirs, hits);
+                if (n == 0) continue;
+                List<TimeSlot> overlaps = new ArrayList<>(n);
+                for (int k = 0; k < n; k++) overlaps.add(TimeSlot.fromPacked(hits[k]));
+                res.put(peer, overlaps);
+            }
+        }
+
+        /**
+         * Linear merge of two sorted, disjoint packed lists into {@code out}
+         * (which must hold a.length + b.length entries).
+         * @return number of overlap windows written
+         */
+        private static int sweep(long[] a, long[] b, long[] out) {
+            int n = 0, i = 0, j = 0;
+            while (i < a.length && j < b.length) {
+                long inter = TimeSlot.intersect(a[i], b[j]);
+                if (inter != TimeSlot.NONE) out[n++] = inter;
+                if (TimeSlot.endOf(a[i]) < TimeSlot.endOf(b[j])) i++; else j++;
+            }
+            return n;
+        }
+
+        /**
+         * Finds when the most students of a course are free at once. Every member's availability is
+         * added to a minute-of-week difference array, whose prefix sums give the number of free
+         * students per minute; for each stretch of constant count, monotonic stacks find the widest
+         * window whose every minute has at least that many students free. Cost is O(week + slots),
+         * independent of the number of pairs.
+         * @param minMinutes shortest window worth reporting
+         * @param limit maximum number of windows returned
+         * @return windows ranked by students free (then longer first, then earlier)
+         */
+        List<GroupWindow> bestTimes(String course, int minMinutes, int limit) {
+            int week = TimeSlot.MINUTES_PER_WEEK;
+            int[] diff = new int[week + 1];
+            for (Student s : repo.studentsInCourse(course)) {
+                for (long p : s.packedAvailability()) { diff[TimeSlot.startOf(p)]++; diff[TimeSlot.endOf(p)]--; }
+            }
+            // collapse the prefix sums into runs of constant count
+            int[] segStart = new int[week + 1];
+            int[] segCount = new int[week];
+            int n = 0, free = 0;
+            for (int m = 0; m < week; m++) {
+                free += diff[m];
+                if (n == 0 || segCount[n - 1] != free) { segStart[n] = m; segCount[n] = free; n++; }
+            }
+            segStart[n] = week;
+
+            // widest run of segments around each one whose counts are all >= its own
+            int[] left = new int[n], right = new int[n], stack = new int[n];
+            int top = 0;
+            for (int i = 0; i < n; i++) {
+                while (top > 0 && segCount[stack[top - 1]] >= segCount[i]) top--;
+                left[i] = top == 0 ? 0 : stack[top - 1] + 1;
+                stack[top++] = i;
+            }
+            top = 0;
+            for (int i = n - 1; i >= 0; i--) {
+                while (top > 0 && segCount[stack[top - 1]] >= segCount[i]) top--;
+                right[i] = top == 0 ? n : stack[top - 1];
+                stack[top++] = i;
+            }
+
+            Set<Long> seen = new HashSet<>();
+            List<GroupWindow> res = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                int from = segStart[left[i]], to = segStart[right[i]];
+                if (segCount[i] == 0 || to - from < minMinutes || !seen.add(TimeSlot.pack(from, to))) continue;
+                res.add(new GroupWindow(TimeSlot.ofMinutes(from, to), segCount[i]));
+            }
+            res.sort(Comparator.<GroupWindow>comparingInt(w -> -w.available)
+                    .thenComparingInt(w -> -w.minutes())
+                    .thenComparingInt(w -> w.time.startMin));
+            return res.size() > limit ? new ArrayList<>(res.subList(0, Math.max(0, limit))) : res;
+        }
+
+        /**
+         * Windows in which at least {@code k} of the given students are free, for forming groups
+         * without pairwise calls. All slot boundaries are sorted once and swept with a running count;
+         * boundaries at the same minute are applied together, so a hand-over between students does
+         * not split a window. O(S log S) for S slots in total.
+         * @return maximal windows in time order; {@code available} is the fewest free at any minute of it
+         */
+        List<GroupWindow> groupWindows(Collection<Integer> studentIds, int k) {
+            if (k <= 0) throw new IllegalArgumentException("k must be positive");
+            List<long[]> slots = new ArrayList<>();
+            int total = 0;
+            for (int id : new LinkedHashSet<>(studentIds)) {
+                Student s = repo.getStudent(id);
+                if (s == null) continue;
+                long[] mine = s.packedAvailability(); // disjoint, so nobody is counted twice
+                slots.add(mine);
+                total += mine.length;
+            }
+            // event = minute * 2 + (1 for a start, 0 for an end)
+            long[] events = new long[total * 2];
+            int e = 0;
+            for (long[] mine : slots) for (long p : mine) {
+                events[e++] = (long) TimeSlot.startOf(p) * 2 + 1;
+                events[e++] = (long) TimeSlot.endOf(p) * 2;
+            }
+            Arrays.sort(events);
+
+            List<GroupWindow> res = new ArrayList<>();
+            int free = 0, open = -1, fewest = 0;
+            for (int i = 0; i < events.length; ) {
+                int minute = (int) (events[i] >> 1);
+                for (; i < events.length && (int) (events[i] >> 1) == minute; i++) free += (events[i] & 1) == 1 ? 1 : -1;
+                if (free >= k) {
+                    if (open < 0) { open = minute; fewest = free; }
+                    else fewest = Math.min(fewest, free);
+                } else if (open >= 0) {
+                    res.add(new GroupWindow(TimeSlot.ofMinutes(open, minute), fewest));
+                    open = -1;
+                }
+            }
+            return res;
+        }
+
+        /** {@link #groupWindows(Collection, int)} for everyone enrolled in a course. */
+        List<GroupWindow> groupWindows(String course, int k) {
+            List<Integer> ids = new ArrayList<>();
+            for (Student s : repo.studentsInCourse(course)) ids.add(s.id);
+            return groupWindows(ids, k);
+        }
+
+        /**
+         * Ranks classmates by total shared minutes and returns only the best {@code k}
+         * (ties go to the lower student ID). On a miss, overlaps are swept into a reused buffer and
+         * kept in a bounded min-heap, so only the final K results are materialised; an exact
+         * {@link #suggestMatches} map already in the cache is ranked instead of sweeping again.
+         * The ranking itself is cached under its parameters, with the same invalidation.
+         * @param minWindowMinutes windows shorter than this are ignored (0 keeps all)
+         * @param days only count windows on these days (null or empty = any day)
+         */
+        List<Match> topMatches(int studentId, String course, int k, int minWindowMinutes, Set<DayOfWeek> days) {
+            Student me = repo.getStudent(studentId);
+            int c = CourseRegistry.SHARED.idOf(course);
+            if (me == null || c < 0 || k <= 0) return new ArrayList<>();
+            int dayBits = 0;
+            if (days == null || days.isEmpty()) dayBits = 0x7F;
+            else for (DayOfWeek d : days) dayBits |= 1 << (d.getValue() - 1);
+
+            int version = me.availabilityVersion();
+            int stamp = repo.courseStamp(c);
+            String key = MatchCache.topKey(studentId, c, k, minWindowMinutes, dayBits);
+            Map<Student, List<TimeSlot>> ranked = cache.get(key, version, stamp); // peer -> kept windows, best first
+            if (ranked == null) {
+                Map<Student, List<TimeSlot>> exact = cache.peek(MatchCache.key(studentId, c, MatchMode.SWEEP), version, stamp);
+                List<Match> top = exact != null
+                        ? rankOverlaps(exact, k, minWindowMinutes, dayBits)
+                        : rankBySweep(me, repo.classmatesInCourse(studentId, c), k, minWindowMinutes, dayBits);
+                ranked = new LinkedHashMap<>();
+                for (Match m : top) ranked.put(m.peer, m.windows);
+                cache.put(key, version, stamp, Collections.unmodifiableMap(ranked));
+                return top;
+            }
+            List<Match> res = new ArrayList<>(ranked.size());
+            for (Map.Entry<Student, List<TimeSlot>> e : ranked.entrySet()) {
+                int total = 0;
+                for (TimeSlot w : e.getValue()) total += w.endMin - w.startMin;
+                res.add(new Match(e.getKey(), e.getValue(), total));
+            }
+            return res;
+        }
+
+        /** Best match first: most minutes, then lowest student ID. */
+        private static final Comparator<Match> BEST_FIRST = Comparator.<Match>comparingInt(m -> m.totalMinutes).reversed()
+                .thenComparingInt(m -> m.peer.id);
+
+        /** Sweeps the peers (forking for large classes when parallel) and keeps the best {@code k}, best first. */
+        private List<Match> rankBySweep(Student me, List<Student> peers, int k, int minWindowMinutes, int dayBits) {
+            long[] mine = me.packedAvailability();
+            if (parallel && peers.size() >= PARALLEL_THRESHOLD) {
+                return ForkJoinPool.commonPool().invoke(new TopTask(mine, peers, 0, peers.size(), k, minWindowMinutes, dayBits));
+            }
+            return topOf(mine, peers, k, minWindowMinutes, dayBits);
+        }
+
+        /** Sequential bounded-heap ranking of a list of peers, best first. */
+        private static List<Match> topOf(long[] mine, List<Student> peers, int k, int minWindowMinutes, int dayBits) {
+            // worst candidate on top; sized by the class, not the caller's k
+            PriorityQueue<Match> heap = new PriorityQueue<>(Math.min(k, peers.size()) + 1, BEST_FIRST.reversed());
+            long[] hits = new long[16];
+            for (Student peer : peers) {
+                long[] theirs = peer.packedAvailability();
+                if (hits.length < mine.length + theirs.length) hits = new long[mine.length + theirs.length];
+                int n = 0, total = 0;
+                for (int w = 0, found = sweep(mine, theirs, hits); w < found; w++) {
+                    long win = hits[w];
+                    int len = TimeSlot.endOf(win) - TimeSlot.startOf(win);
+                    if (len < minWindowMinutes || (dayBits & (1 << (TimeSlot.startOf(win) / TimeSlot.MINUTES_PER_DAY))) == 0) continue;
+                    hits[n++] = win;
+                    total += len;
+                }
+                if (total == 0 || !offer(heap, k, peer, total)) continue;
+                List<TimeSlot> windows = new ArrayList<>(n);
+                for (int w = 0; w < n; w++) windows.add(TimeSlot.fromPacked(hits[w]));
+                heap.add(new Match(peer, Collections.unmodifiableList(windows), total));
+            }
+            List<Match> res = new ArrayList<>(heap);
+            res.sort(BEST_FIRST);
+            return res;
+        }
+
+        /** Ranks an already computed overlap map, filtering windows, best first. */
+        private static List<Match> rankOverlaps(Map<Student, List<TimeSlot>> overlaps, int k, int minWindowMinutes, int dayBits) {
+            PriorityQueue<Match> heap = new PriorityQueue<>(Math.min(k, overlaps.size()) + 1, BEST_FIRST.reversed());
+            for (Map.Entry<Student, List<TimeSlot>> e : overlaps.entrySet()) {
+                List<TimeSlot> all = e.getValue();
+                int total = 0, kept = 0;
+                for (TimeSlot w : all) {
+                    if (keep(w, minWindowMinutes, dayBits)) { total += w.endMin - w.startMin; kept++; }
+                }
+                if (total == 0 || !offer(heap, k, e.getKey(), total)) continue;
+                List<TimeSlot> windows = all; // already read-only; only copy when filters dropped some
+                if (kept < all.size()) {
+                    windows = new ArrayList<>(kept);
+                    for (TimeSlot w : all) if (keep(w, minWindowMinutes, dayBits)) windows.add(w);
+                    windows = Collections.unmodifiableList(windows);
+                }
+                heap.add(new Match(e.getKey(), windows, total));
+            }
+            List<Match> res = new ArrayList<>(heap);
+            res.sort(BEST_FIRST);
+            return res;
+        }
+
+        /** Makes room in a full heap if the candidate beats its worst entry; false if it does not. */
+        private static boolean offer(PriorityQueue<Match> heap, int k, Student peer, int total) {
+            if (heap.size() < k) return true;
+            Match worst = heap.peek();
+            if (total < worst.totalMinutes || (total == worst.totalMinutes && peer.id > worst.peer.id)) return false;
+            heap.poll();
+            return true;
         }
-    }
-
-    /**
-     * Represents a study session (course + time) with participants and per-participant confirmations.
-     * Participants/confirmations are tracked by student ID (names are resolved in the CLI for display).
-     */
-    static class StudySession {
-        final int id;
-        final String course; // normalized
-        final TimeSlot time;
-        final Set<Integer> participantIds = new LinkedHashSet<>();
-        final Set<Integer> confirmedIds = new LinkedHashSet<>();
 
         /**
-         * Creates a new session with initial participants.
+         * Ranks halves of the classmate list in parallel and keeps the best {@code k} of both;
+         * the merge is deterministic, so the result matches the sequential ranking.
          */
-        StudySession(int id, String course, TimeSlot time, Collection<Integer> participants) {
-            this.id = id; this.course = normalizeCourse(course); this.time = time;
-            if (participants != null) participantIds.addAll(participants);
-        }
+        private static final class TopTask extends RecursiveTask<List<Match>> {
+            private static final long serialVersionUID = 1L;
 
-        /** True if the given student is in the participant list. */
-        boolean isParticipant(int studentId) { return participantIds.contains(studentId); }
+            private final long[] mine;
+            private final List<Student> peers;
+            private final int lo, hi, k, minWindowMinutes, dayBits;
+
+            TopTask(long[] mine, List<Student> peers, int lo, int hi, int k, int minWindowMinutes, int dayBits) {
+                this.mine = mine; this.peers = peers; this.lo = lo; this.hi = hi;
+                this.k = k; this.minWindowMinutes = minWindowMinutes; this.dayBits = dayBits;
+            }
 
-        /** Adds a participant (no duplicates due to Set). */
-        void addParticipant(int studentId) { participantIds.add(studentId); }
+            @Override protected List<Match> compute() {
+                if (hi - lo <= PARALLEL_CHUNK) return topOf(mine, peers.subList(lo, hi), k, minWindowMinutes, dayBits);
+                int mid = (lo + hi) >>> 1;
+                TopTask left = new TopTask(mine, peers, lo, mid, k, minWindowMinutes, dayBits);
+                left.fork();
+                List<Match> res = new TopTask(mine, peers, mid, hi, k, minWindowMinutes, dayBits).compute();
+                res.addAll(left.join());
+                res.sort(BEST_FIRST);
+                return res.size() > k ? new ArrayList<>(res.subList(0, k)) : res;
+            }
+        }
 
-        /** Confirms attendance for a participant. */
-        void confirm(int studentId) { if (participantIds.contains(studentId)) confirmedIds.add(studentId); }
+        /** True if a window is long enough and falls on one of the selected days (bit 0 = Monday). */
+        private static boolean keep(TimeSlot w, int minWindowMinutes, int dayBits) {
+            return w.endMin - w.startMin >= minWindowMinutes && (dayBits & (1 << (w.day.getValue() - 1))) != 0;
+        }
 
-        /** True if everyone in the session has confirmed. */
-        boolean isFullyConfirmed() { return !participantIds.isEmpty() && confirmedIds.containsAll(participantIds); }
+        /** ANDs weekly bitmaps; a peer costs {@link WeekMask#WORDS} long operations unless they overlap. */
+        private static void bitmaskMatches(Student me, List<Student> peers, Map<Student, List<TimeSlot>> res) {
+            long[] mine = me.availabilityMask();
+            long[] both = new long[WeekMask.WORDS];
+            for (Student peer : peers) {
+                if (WeekMask.and(mine, peer.availabilityMask(), both) > 0) res.put(peer, WeekMask.toSlots(both));
+            }
+        }
 
         /**
-         * Minimal string summary; the CLI prints human-friendly participant names separately.
+         * Merges overlapping/adjacent packed slots for readability.
+         * Sorts {@code slots[0, n)} in place (packed longs order by day, start, then end) and writes the
+         * merged slots to {@code out}, which may be {@code slots} itself; nothing is allocated for the
+         * slot counts seen here, where the primitive sort is an insertion sort.
+         * @return number of merged slots written to {@code out}
          */
-        @Override public String toString() {
-            return String.format("Session[%d] %s | %s", id, course, time);
+        static int mergeAdjacent(long[] slots, int n, long[] out) {
+            if (n == 0) return 0;
+            Arrays.sort(slots, 0, n);
+            long cur = slots[0];
+            int m = 0;
+            for (int i = 1; i < n; i++) {
+                long nxt = slots[i];
+                // minute-of-week ranges never touch across days, so no separate day check is needed
+                if (TimeSlot.startOf(nxt) <= TimeSlot.endOf(cur)) {
+                    if (TimeSlot.endOf(nxt) > TimeSlot.endOf(cur)) cur = TimeSlot.pack(TimeSlot.startOf(cur), TimeSlot.endOf(nxt));
+                } else { out[m++] = cur; cur = nxt; }
+            }
+            out[m++] = cur;
+            return m;
         }
     }
 
-    // ======== REPOSITORY ======== //
+    // ======== SYNTHETIC DATA ======== //
 
     /**
-     * In-memory storage for students and sessions.
-     * Provides CRUD-like helpers and simple searches.
+     * Deterministic, seedable generator for a production-shaped population (benchmarks, load tests,
+     * capacity planning). The same seed and settings always produce the same repository contents.
+     *
+     * Shape:
+     * - Course popularity follows a Zipf law (rank r is picked with weight 1 / r^s).
+     * - Each student has a preferred part of the day (morning/afternoon/evening) and puts most of
+     *   their availability on weekdays there, on half-hour boundaries; weekends are rarer.
+     * - Sessions go to courses by the same popularity, are owned by an enrolled student, pull in
+     *   a few classmates, and some of their participants have already confirmed.
      */
-    static class Repository {
-        private final Map<Integer, Student> students = new LinkedHashMap<>();
-        private final Map<Integer, StudySession> sessions = new LinkedHashMap<>();
-        private int studentSeq = 1;
-        private int sessionSeq = 1;
-
-        /** Creates and stores a new student. */
-        Student createStudent(String name) {
-            Student s = new Student(studentSeq++, name);
-            students.put(s.id, s);
-            return s;
+    static class DatasetGenerator {
+        private static final String[] DEPARTMENTS =
+                { "CPSC", "MATH", "ENGL", "PHYS", "CHEM", "BIOL", "ECON", "HIST", "PSYC", "STAT" };
+        private static final String[] FIRST_NAMES = { "Alice", "Bob", "Jon", "Mary", "Priya", "Wei", "Carlos",
+                "Fatima", "Liam", "Emma", "Noah", "Olivia", "Mateo", "Aisha", "Yuki", "Sofia", "Omar", "Grace" };
+        private static final String[] LAST_NAMES = { "Smith", "Johnson", "Lee", "Garcia", "Patel", "Nguyen",
+                "Brown", "Kim", "Martinez", "Davis", "Chen", "Wilson", "Lopez", "Clark", "Singh", "Walker" };
+
+        private final long seed;
+        private int students = 1_000;
+        private int courses = 50;
+        private int minCoursesPerStudent = 3;
+        private int maxCoursesPerStudent = 5;
+        private double zipfExponent = 1.0;
+        private int slotsPerStudent = 6;
+        private int sessions = 500;
+
+        /** Creates a generator with default settings; all randomness derives from the seed. */
+        DatasetGenerator(long seed) { this.seed = seed; }
+
+        /** Number of students to create. */
+        DatasetGenerator students(int n) { this.students = n; return this; }
+
+        /** Size of the course catalog. */
+        DatasetGenerator courses(int n) { this.courses = n; return this; }
+
+        /** Range of courses each student enrolls in (capped at the catalog size). */
+        DatasetGenerator coursesPerStudent(int min, int max) {
+            if (min < 0 || max < min) throw new IllegalArgumentException("Invalid course range");
+            this.minCoursesPerStudent = min; this.maxCoursesPerStudent = max; return this;
         }
 
-        /** Looks up a student by ID. */
-        Student getStudent(int id) { return students.get(id); }
+        /** Zipf exponent for course popularity (0 = uniform, larger = more skewed). */
+        DatasetGenerator zipfExponent(double s) { this.zipfExponent = s; return this; }
 
-        /** Returns all students in insertion order. */
-        Collection<Student> allStudents() { return students.values(); }
+        /** Average number of availability slots per student. */
+        DatasetGenerator slotsPerStudent(int n) { this.slotsPerStudent = n; return this; }
 
-        /** Creates and stores a new session. */
-        StudySession createSession(String course, TimeSlot time, Collection<Integer> participants) {
-            StudySession ss = new StudySession(sessionSeq++, course, time, participants);
-            sessions.put(ss.id, ss);
-            return ss;
+        /** Number of sessions in the backlog. */
+        DatasetGenerator sessions(int n) { this.sessions = n; return this; }
+
+        /** Course code for a popularity rank (0 = most popular), e.g. "CPSC 1010". */
+        static String courseCode(int rank) {
+            return DEPARTMENTS[rank % DEPARTMENTS.length] + " " + (1010 + 10 * (rank / DEPARTMENTS.length));
         }
 
-        /** Looks up a session by ID. */
-        StudySession getSession(int id) { return sessions.get(id); }
+        /** Fills the repository with students, enrollments, availability and sessions. */
+        void populate(Repository repo) {
+            Random rnd = new Random(seed);
+            double[] cdf = zipfCdf(courses, zipfExponent);
+            for (int i = 0; i < students; i++) {
+                Student s = repo.createStudent(FIRST_NAMES[rnd.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[rnd.nextInt(LAST_NAMES.length)]);
+                int want = Math.min(courses, minCoursesPerStudent + rnd.nextInt(maxCoursesPerStudent - minCoursesPerStudent + 1));
+                // popular courses are picked repeatedly, so bound the retries instead of looping forever
+                for (int tries = 0; s.courses.size() < want && tries < want * 20; tries++) {
+                    s.addCourse(courseCode(sample(cdf, rnd)));
+                }
+                addWeeklyPattern(s, rnd);
+            }
+            for (int i = 0; students > 0 && i < sessions; i++) addSession(repo, cdf, rnd);
+        }
 
-        /** Returns all sessions in insertion order. */
-        Collection<StudySession> allSessions() { return sessions.values(); }
+        /** Adds availability clustered around the student's preferred time of day. */
+        private void addWeeklyPattern(Student s, Random rnd) {
+            int preferredStart = (8 + 4 * rnd.nextInt(3)) * 60; // 08:00, 12:00 or 16:00
+            int n = Math.max(0, slotsPerStudent - 2 + rnd.nextInt(5));
+            for (int k = 0; k < n; k++) {
+                DayOfWeek day = rnd.nextInt(10) == 0
+                        ? DayOfWeek.of(6 + rnd.nextInt(2))
+                        : DayOfWeek.of(1 + rnd.nextInt(5));
+                int start = rnd.nextInt(4) == 0
+                        ? 8 * 60 + 30 * rnd.nextInt(26)           // anywhere 08:00-20:30
+                        : preferredStart + 30 * rnd.nextInt(8);   // within the preferred block
+                int end = Math.min(22 * 60, start + 30 * (1 + rnd.nextInt(6)));
+                s.addAvailability(new TimeSlot(day, LocalTime.of(start / 60, start % 60), LocalTime.of(end / 60, end % 60)));
+            }
+        }
 
-        /**
-         * Returns classmates (excluding the given student) enrolled in a course.
-         */
-        List<Student> classmatesInCourse(int studentId, String course) {
-            String c = normalizeCourse(course);
-            List<Student> res = new ArrayList<>();
-            for (Student s : students.values()) {
-                if (s.id == studentId) continue;
-                if (s.courses.contains(c)) res.add(s);
+        /** Creates one session for a popular course with a handful of enrolled participants. */
+        private void addSession(Repository repo, double[] cdf, Random rnd) {
+            String course = courseCode(sample(cdf, rnd));
+            List<Student> members = repo.studentsInCourse(course);
+            if (members.isEmpty()) return;
+            int start = 8 * 60 + 30 * rnd.nextInt(24);
+            int end = start + 60 * (1 + rnd.nextInt(2));
+            TimeSlot time = new TimeSlot(DayOfWeek.of(1 + rnd.nextInt(5)),
+                    LocalTime.of(start / 60, start % 60), LocalTime.of(end / 60, end % 60));
+            List<Integer> ids = new ArrayList<>();
+            for (int k = Math.min(members.size(), 2 + rnd.nextInt(5)); k > 0; k--) {
+                ids.add(members.get(rnd.nextInt(members.size())).id);
             }
-            return res;
+            StudySession ss = repo.createSession(course, time, ids);
+            for (int pid : ss.participantIds().toIntArray()) if (rnd.nextInt(3) == 0) ss.confirm(pid);
         }
 
-        /**
-         * Finds sessions by course code.
-         */
-        List<StudySession> searchSessionsByCourse(String course) {
-            String c = normalizeCourse(course);
-            List<StudySession> res = new ArrayList<>();
-            for (StudySession s : sessions.values()) if (s.course.equals(c)) res.add(s);
-            return res;
+        /** Cumulative Zipf distribution over ranks 0..n-1. */
+        private static double[] zipfCdf(int n, double s) {
+            double[] cdf = new double[n];
+            double sum = 0;
+            for (int r = 0; r < n; r++) { sum += 1.0 / Math.pow(r + 1, s); cdf[r] = sum; }
+            for (int r = 0; r < n; r++) cdf[r] /= sum;
+            return cdf;
         }
 
-        /**
-         * Finds sessions where any participant's name contains the substring.
-         */
-        List<StudySession> searchSessionsByStudentName(String nameSubstr) {
-            String q = nameSubstr.toLowerCase();
-            List<StudySession> res = new ArrayList<>();
-            for (StudySession s : sessions.values()) {
-                for (Integer pid : s.participantIds) {
-                    Student st = students.get(pid);
-                    if (st != null && st.name.toLowerCase().contains(q)) { res.add(s); break; }
-                }
-            }
-            return res;
+        /** Draws a rank from a cumulative distribution. */
+        private static int sample(double[] cdf, Random rnd) {
+            int i = Arrays.binarySearch(cdf, rnd.nextDouble());
+            return Math.min(cdf.length - 1, i >= 0 ? i : -i - 1);
         }
     }
 
-    // ======== CONTROLLERS ======== //
+    // ======== BULK IMPORT ======== //
 
     /**
-     * Handles student profile creation.
+     * Streaming import of registrar exports: students, enrollments and availability, one record
+     * per line as CSV or JSON lines (the two may be mixed; a line starting with '{' is JSON):
+     *
+     *   student,KEY,NAME        {"type":"student","student":"KEY","name":"NAME"}
+     *   enroll,KEY,COURSE       {"type":"enroll","student":"KEY","course":"COURSE"}
+     *   avail,KEY,DAY,HH:mm,HH:mm   {"type":"avail","student":"KEY","day":"Mon","start":"14:00","end":"16:00"}
+     *
+     * KEY is the export's own student key; rows may also name an existing student by numeric ID.
+     * Blank lines, '#' comments and a CSV header row starting with "type" are skipped.
+     *
+     * One thread parses lines into batches, a pool validates batches (fields, days, times, slots)
+     * in parallel, and the calling thread applies them to the repository in file order. The queue
+     * between the stages is bounded, so memory stays flat however large the file is; with a log
+     * attached, each batch shares one flush. Bad rows are reported with their line and skipped.
      */
-    static class ProfileController {
-        private final Repository repo; ProfileController(Repository r) { this.repo = r; }
+    static final class RosterImporter {
+        static final int DEFAULT_BATCH = 1024;
+        private static final int IN_FLIGHT_PER_WORKER = 4; // batches parsed ahead of the applier
+        private static final int MAX_MESSAGES = 100; // errors kept in the report; all are counted
 
-        /** Creates a student and enrolls them in initial courses. */
-        Student createProfile(String name, List<String> initialCourses) {
-            Student s = repo.createStudent(name);
-            for (String c : initialCourses) s.addCourse(c);
-            return s;
+        private final Repository repo;
+        private final int batchSize;
+        private final int workers;
+        private final Map<String, Integer> keys = new HashMap<>(); // export key -> student ID; applier thread only
+
+        /** Creates an importer with the default batch size and one validator per core. */
+        RosterImporter(Repository repo) { this(repo, DEFAULT_BATCH, Runtime.getRuntime().availableProcessors()); }
+
+        /** Creates an importer with the given batch size and number of validator threads. */
+        RosterImporter(Repository repo, int batchSize, int workers) {
+            if (batchSize <= 0 || workers <= 0) throw new IllegalArgumentException("batchSize and workers must be positive");
+            this.repo = repo; this.batchSize = batchSize; this.workers = workers;
         }
-    }
 
-    /**
-     * Handles adding/removing availability.
-     */
-    static class AvailabilityController {
-        private final Repository repo; AvailabilityController(Repository r) { this.repo = r; }
+        /** Imports a UTF-8 file. */
+        Report importFile(Path file) throws IOException {
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) { return importFrom(in); }
+        }
 
-        /** Adds an availability slot to the given student. */
-        void addAvailability(int studentId, TimeSlot slot) { Student s = repo.getStudent(studentId); if (s!=null) s.addAvailability(slot); }
+        /**
+         * Imports every line of the reader (which the caller closes).
+         * Keys are remembered across calls, so enrollments may come in a later file than the students.
+         */
+        Report importFrom(BufferedReader in) throws IOException {
+            ExecutorService validators = Executors.newFixedThreadPool(workers, r -> {
+                Thread t = new Thread(r, "import-validate");
+                t.setDaemon(true);
+                return t;
+            });
+            BlockingQueue<Future<Row[]>> batches = new ArrayBlockingQueue<>(IN_FLIGHT_PER_WORKER * workers);
+            Future<Row[]> end = CompletableFuture.completedFuture(null);
+            AtomicReference<IOException> readFailure = new AtomicReference<>();
+            Thread parser = new Thread(() -> {
+                try {
+                    List<Row> batch = new ArrayList<>(batchSize);
+                    long lineNo = 0;
+                    for (String line; (line = in.readLine()) != null; ) {
+                        Row r = parse(line, ++lineNo);
+                        if (r == null) continue;
+                        batch.add(r);
+                        if (batch.size() == batchSize) {
+                            Row[] rows = batch.toArray(new Row[0]);
+                            batches.put(validators.submit(() -> validate(rows)));
+                            batch.clear();
+                        }
+                    }
+                    Row[] rows = batch.toArray(new Row[0]);
+                    if (rows.length > 0) batches.put(validators.submit(() -> validate(rows)));
+                } catch (IOException e) {
+                    readFailure.set(e);
+                } catch (InterruptedException e) {
+                    return; // the applier gave up
+                }
+                try { batches.put(end); } catch (InterruptedException ignored) {}
+            }, "import-parse");
+            parser.setDaemon(true);
+            parser.start();
+
+            Report report = new Report();
+            try {
+                for (Future<Row[]> f; (f = batches.take()) != end; ) {
+                    Row[] rows = f.get();
+                    repo.batch(() -> { for (Row r : rows) apply(r, report); });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Import interrupted");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Validation failed", e.getCause()); // validate() catches row errors itself
+            } finally {
+                parser.interrupt();
+                validators.shutdownNow();
+            }
+            if (readFailure.get() != null) throw readFailure.get();
+            return report;
+        }
 
-        /** Removes availability by index. */
-        boolean removeAvailability(int studentId, int index) { Student s = repo.getStudent(studentId); return s!=null && s.removeAvailability(index); }
-    }
+        /** Splits a line into a row, or returns null for blank, comment and header lines (parser thread). */
+        private static Row parse(String line, long lineNo) {
+            String t = line.trim();
+            if (t.isEmpty() || t.startsWith("#")) return null;
+            try {
+                if (t.startsWith("{")) {
+                    Map<String, String> obj = parseJsonObject(t);
+                    String type = obj.getOrDefault("type", "");
+                    String[] values;
+                    switch (type) {
+                        case "student": values = new String[] { obj.get("name") }; break;
+                        case "enroll": values = new String[] { obj.get("course") }; break;
+                        case "avail": values = new String[] { obj.get("day"), obj.get("start"), obj.get("end") }; break;
+                        default: values = new String[0];
+                    }
+                    return new Row(lineNo, type, obj.get("student"), values);
+                }
+                List<String> fields = splitCsv(t);
+                if (fields.get(0).trim().equalsIgnoreCase("type")) return null;
+                return new Row(lineNo, fields.get(0).trim(), fields.size() > 1 ? fields.get(1) : null,
+                        fields.subList(Math.min(2, fields.size()), fields.size()).toArray(new String[0]));
+            } catch (IllegalArgumentException e) {
+                Row bad = new Row(lineNo, "", null, new String[0]);
+                bad.error = e.getMessage();
+                return bad;
+            }
+        }
 
-    /**
-     * Handles session operations and match suggestions.
-     */
-    static class SessionController {
-        private final Repository repo; SessionController(Repository r) { this.repo = r; }
+        /** Checks and converts every row of a batch (validator threads). */
+        private static Row[] validate(Row[] rows) {
+            for (Row r : rows) {
+                if (r.error != null) continue;
+                try {
+                    r.check();
+                } catch (RuntimeException e) {
+                    r.error = e.getMessage() != null ? e.getMessage() : e.toString();
+                }
+            }
+            return rows;
+        }
 
-        /** Returns classmates in a given course for the student. */
-        List<Student> classmates(int studentId, String course) { return repo.classmatesInCourse(studentId, course); }
+        /** Applies one validated row (calling thread, in file order). */
+        private void apply(Row r, Report report) {
+            if (r.error != null) { report.error(r.line, r.error); return; }
+            if (r.type.equals("student")) {
+                if (keys.containsKey(r.key)) { report.error(r.line, "Duplicate student key " + r.key); return; }
+                keys.put(r.key, repo.createStudent(r.value).id);
+                report.students++;
+                return;
+            }
+            Student s = resolve(r.key);
+            if (s == null) { report.error(r.line, "Unknown student " + r.key); return; }
+            if (r.type.equals("enroll")) {
+                s.addCourse(r.value);
+                report.enrollments++;
+            } else {
+                s.addAvailability(r.slot);
+                report.slots++;
+            }
+        }
 
-        /** Returns all sessions. */
-        Collection<StudySession> allSessions() { return repo.allSessions(); }
+        /** Finds a student by export key, falling back to a numeric repository ID. */
+        private Student resolve(String key) {
+            Integer id = keys.get(key);
+            if (id != null) return repo.getStudent(id);
+            try {
+                return repo.getStudent(Integer.parseInt(key));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
 
-        /** Searches sessions by course code. */
-        List<StudySession> searchByCourse(String course) { return repo.searchSessionsByCourse(course); }
+        /** Splits one CSV line; fields may be double-quoted, with "" for a literal quote. */
+        static List<String> splitCsv(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder cur = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') cur.append(c);
+                    else if (i + 1 < line.length() && line.charAt(i + 1) == '"') { cur.append('"'); i++; }
+                    else quoted = false;
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(cur.toString());
+                    cur.setLength(0);
+                } else {
+                    cur.append(c);
+                }
+            }
+            if (quoted) throw new IllegalArgumentException("Unterminated quote");
+            fields.add(cur.toString());
+            return fields;
+        }
 
-        /** Searches sessions by participant name substring. */
-        List<StudySession> searchByStudentName(String nameSubstr) { return repo.searchSessionsByStudentName(nameSubstr); }
+        /** Parses a flat JSON object of string/number/boolean/null values into strings. */
+        static Map<String, String> parseJsonObject(String s) {
+            Map<String, String> res = new HashMap<>();
+            int[] pos = { skipWs(s, 0) };
+            expect(s, pos, '{');
+            if (peek(s, pos) == '}') { pos[0]++; return res; }
+            while (true) {
+                String key = readJsonString(s, pos);
+                expect(s, pos, ':');
+                String value;
+                if (peek(s, pos) == '"') {
+                    value = readJsonString(s, pos);
+                } else {
+                    int start = pos[0];
+                    while (pos[0] < s.length() && ",} \t".indexOf(s.charAt(pos[0])) < 0) pos[0]++;
+                    value = s.substring(start, pos[0]);
+                    if (value.isEmpty() || value.startsWith("{") || value.startsWith("[")) throw new IllegalArgumentException("Expected a flat JSON value for " + key);
+                    if (value.equals("null")) value = null;
+                }
+                res.put(key, value);
+                char c = peek(s, pos);
+                pos[0]++;
+                if (c == '}') break;
+                if (c != ',') throw new IllegalArgumentException("Malformed JSON at column " + pos[0]);
+            }
+            if (skipWs(s, pos[0]) != s.length()) throw new IllegalArgumentException("Trailing characters after JSON object");
+            return res;
+        }
 
-        /** Returns a session by ID. */
-        StudySession getSession(int id) { return repo.getSession(id); }
+        /** Reads a JSON string literal at the cursor. */
+        private static String readJsonString(String s, int[] pos) {
+            expect(s, pos, '"');
+            StringBuilder sb = new StringBuilder();
+            for (int i = pos[0]; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"') { pos[0] = i + 1; return sb.toString(); }
+                if (c != '\\') { sb.append(c); continue; }
+                if (++i >= s.length()) break;
+                char e = s.charAt(i);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (i + 4 >= s.length()) throw new IllegalArgumentException("Bad \\u escape");
+                        sb.append((char) Integer.parseInt(s.substring(i + 1, i + 5), 16));
+                        i += 4;
+                        break;
+                    default: sb.append(e); // \" \\ \/
+                }
+            }
+            throw new IllegalArgumentException("Unterminated JSON string");
+        }
 
-        /** Creates a new session. */
-        StudySession create(String course, TimeSlot time, Collection<Integer> participants) { return repo.createSession(course, time, participants); }
+        /** Skips whitespace, returning the next position. */
+        private static int skipWs(String s, int i) {
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+            return i;
+        }
 
-        /** Adds the student to a session's participant list. */
-        void join(int sessionId, int studentId) { StudySession s = repo.getSession(sessionId); if (s!=null) s.addParticipant(studentId); }
+        /** Next non-space character (the cursor is moved onto it). */
+        private static char peek(String s, int[] pos) {
+            pos[0] = skipWs(s, pos[0]);
+            if (pos[0] >= s.length()) throw new IllegalArgumentException("Unexpected end of JSON");
+            return s.charAt(pos[0]);
+        }
 
-        /** Marks the session as confirmed by the student. */
-        void confirm(int sessionId, int studentId) { StudySession s = repo.getSession(sessionId); if (s!=null) s.confirm(studentId); }
+        /** Consumes the expected character. */
+        private static void expect(String s, int[] pos, char c) {
+            if (peek(s, pos) != c) throw new IllegalArgumentException("Expected '" + c + "' at column " + (pos[0] + 1));
+            pos[0]++;
+        }
 
-        /**
-         * Computes overlapping availability windows between the active student and classmates in the same course.
-         * Returns a map from classmate -> list of overlapped time slots.
-         */
-        Map<Student, List<TimeSlot>> suggestMatches(int studentId, String course) {
-            Student me = repo.getStudent(studentId);
-            Map<Student, List<TimeSlot>> res = new LinkedHashMap<>();
-            if (me == null) return res;
-            for (Student peer : classmates(studentId, course)) {
-                List<TimeSlot> overlaps = new ArrayList<>();
-                for (TimeSlot a : me.availability) for (TimeSlot b : peer.availability) {
-                    TimeSlot inter = a.intersection(b);
-                    if (inter != null) overlaps.add(inter);
+        /** One input record; filled in by the parser, checked by a validator, then applied. */
+        private static final class Row {
+            final long line;
+            final String type;
+            final String key;
+            final String[] values;
+            String error;
+            String value; // student name or normalized course
+            TimeSlot slot;
+
+            Row(long line, String type, String key, String[] values) {
+                this.line = line; this.type = type; this.key = key == null ? null : key.trim(); this.values = values;
+            }
+
+            /** Validates the fields for the row type and converts them. */
+            void check() {
+                if (key == null || key.isEmpty()) throw new IllegalArgumentException("Missing student key");
+                switch (type) {
+                    case "student": value = field(0, "name"); break;
+                    case "enroll": value = normalizeCourse(field(0, "course")); break;
+                    case "avail":
+                        slot = new TimeSlot(parseDay(field(0, "day")), LocalTime.parse(field(1, "start")), LocalTime.parse(field(2, "end")));
+                        break;
+                    default: throw new IllegalArgumentException("Unknown record type '" + type + "'");
                 }
-                if (!overlaps.isEmpty()) res.put(peer, mergeAdjacent(overlaps));
             }
-            return res;
+
+            /** A required, non-blank field. */
+            private String field(int i, String name) {
+                String v = i < values.length ? values[i] : null;
+                if (v == null || v.trim().isEmpty()) throw new IllegalArgumentException("Missing " + name);
+                return v.trim();
+            }
         }
 
-        /**
-         * Merges overlapping/adjacent slots on same day for readability.
-         */
-        private static List<TimeSlot> mergeAdjacent(List<TimeSlot> slots) {
-            if (slots.isEmpty()) return slots;
-            slots.sort(Comparator.<TimeSlot, DayOfWeek>comparing(ts -> ts.day)
-                    .thenComparing(ts -> ts.start)
-                    .thenComparing(ts -> ts.end));
-            List<TimeSlot> merged = new ArrayList<>();
-            TimeSlot cur = slots.get(0);
-            for (int i = 1; i < slots.size(); i++) {
-                TimeSlot nxt = slots.get(i);
-                if (cur.day == nxt.day && !cur.end.isBefore(nxt.start)) {
-                    cur = new TimeSlot(cur.day, cur.start, cur.end.isAfter(nxt.end) ? cur.end : nxt.end);
-                } else { merged.add(cur); cur = nxt; }
+        /** Counts of what an import applied, plus the first error messages. */
+        static final class Report {
+            int students;
+            int enrollments;
+            int slots;
+            int errors;
+            final List<String> messages = new ArrayList<>();
+
+            /** Records a rejected line. */
+            void error(long line, String message) {
+                if (errors++ < MAX_MESSAGES) messages.add("line " + line + ": " + message);
+            }
+
+            @Override public String toString() {
+                return String.format("Imported %d students, %d enrollments, %d slots; %d rejected", students, enrollments, slots, errors);
             }
-            merged.add(cur);
-            return merged;
         }
     }
 
@@ -335,9 +2579,12 @@ public class StudyBuddyApp {
 
     /**
      * CLI (Command Line Interface) to drive the app: prompts, menus, and printing.
+     * Output goes through one buffered writer that is flushed when the CLI waits for input, i.e.
+     * once per command; long listings are paged so only the rows on screen are formatted.
      */
     static class CLI {
-        private final Scanner in = new Scanner(System.in);
+        private final Scanner in;
+        private final PrintWriter out;
         private final Repository repo;
         private final ProfileController profileCtl;
         private final AvailabilityController availCtl;
@@ -348,22 +2595,45 @@ public class StudyBuddyApp {
         // Fixed course catalog (per requirements)
         private static final String C1 = "CPSC 3720";
         private static final String C2 = "MATH 3110";
+        private static final int TOP_MATCHES = 10; // suggestions shown per request
+        private static final int PAGE_SIZE = 20; // rows per page of a listing, until the user picks another
+        private int pageSize = PAGE_SIZE;
 
-        /** Wires controllers to the shared repository. */
-        CLI(Repository repo) {
+        /** Wires controllers to the shared repository, reading stdin and writing stdout. */
+        CLI(Repository repo) { this(repo, System.in, System.out); }
+
+        /** Same as {@link #CLI(Repository)} on the given streams. */
+        CLI(Repository repo, InputStream input, OutputStream output) {
+            this.in = new Scanner(input, StandardCharsets.UTF_8);
+            this.out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 1 << 16));
             this.repo = repo;
             this.profileCtl = new ProfileController(repo);
             this.availCtl = new AvailabilityController(repo);
             this.sessionCtl = new SessionController(repo);
+            sessionCtl.setParallel(true); // only kicks in for classes past PARALLEL_THRESHOLD
         }
 
         /**
-         * Boots the app: seeds data, creates user's profile, then loops menu.
+         * Boots the app: seeds data (unless restored from disk), creates user's profile, then loops menu.
+         * Returns on exit or when the input ends.
          */
         void run() {
+            try {
+                loop();
+            } catch (NoSuchElementException endOfInput) {
+                println("");
+            } finally {
+                out.flush();
+            }
+        }
+
+        /** Startup and the menu loop. */
+        private void loop() {
             println("\n=== Study Buddy (CLI) ===");
-            seedClassmates();
-            seedPlannedSessions();
+            if (repo.allStudents().isEmpty()) {
+                seedClassmates();
+                seedPlannedSessions();
+            }
             promptCreateProfile();
             while (true) {
                 try {
@@ -382,6 +2652,8 @@ public class StudyBuddyApp {
                         case "0": println("Goodbye!"); return;
                         default: println("Unknown option");
                     }
+                } catch (NoSuchElementException endOfInput) {
+                    throw endOfInput;
                 } catch (Exception e) {
                     println("Error: " + e.getMessage());
                 }
@@ -494,7 +2766,8 @@ public class StudyBuddyApp {
         private void manageAvailability() {
             Student me = repo.getStudent(activeStudentId);
             println("\nYour availability:");
-            for (int i = 0; i < me.availability.size(); i++) println("  [" + i + "] " + me.availability.get(i));
+            List<TimeSlot> slots = me.availability();
+            for (int i = 0; i < slots.size(); i++) println("  [" + i + "] " + slots.get(i));
             println("a) add, r) remove, x) back");
             String ch = prompt("> ");
             if (ch.equalsIgnoreCase("a")) {
@@ -525,17 +2798,17 @@ public class StudyBuddyApp {
         }
 
         /**
-         * Displays overlapping availability suggestions with classmates for a chosen course.
+         * Displays the best overlapping availability suggestions with classmates for a chosen course.
          */
         private void suggestMatches() {
             Student me = repo.getStudent(activeStudentId);
             String course = pickCourseFromMine(me);
-            Map<Student, List<TimeSlot>> suggestions = sessionCtl.suggestMatches(me.id, course);
+            List<Match> suggestions = sessionCtl.topMatches(me.id, course, TOP_MATCHES, 0, null);
             if (suggestions.isEmpty()) { println("No overlapping availability found."); return; }
-            println("\nSuggested matches (overlaps):");
-            for (Map.Entry<Student, List<TimeSlot>> e : suggestions.entrySet()) {
-                println("* " + e.getKey());
-                for (TimeSlot ts : e.getValue()) println("    - " + ts);
+            println("\nTop " + suggestions.size() + " matches (most shared time first):");
+            for (Match m : suggestions) {
+                println("* " + m);
+                for (TimeSlot ts : m.windows) println("    - " + ts);
             }
         }
 
@@ -546,17 +2819,17 @@ public class StudyBuddyApp {
             println("\nSearch sessions: a) all, c) by course, n) by name, x) back");
             String ch = prompt("> ");
             if (ch.equalsIgnoreCase("a")) {
-                for (StudySession s : sessionCtl.allSessions()) printSessionLine(s);
+                page(new ArrayList<>(sessionCtl.allSessions()), this::printSessionLine);
             } else if (ch.equalsIgnoreCase("c")) {
                 String course = prompt("Course (e.g., CPSC 3720): ");
                 List<StudySession> list = sessionCtl.searchByCourse(course);
                 if (list.isEmpty()) println("No sessions for that course.");
-                for (StudySession s : list) printSessionLine(s);
+                page(new ArrayList<>(list), this::printSessionLine);
             } else if (ch.equalsIgnoreCase("n")) {
                 String name = prompt("Student name contains: ");
                 List<StudySession> list = sessionCtl.searchByStudentName(name);
                 if (list.isEmpty()) println("No sessions involving that name.");
-                for (StudySession s : list) printSessionLine(s);
+                page(list, this::printSessionLine);
             }
         }
 
@@ -583,12 +2856,12 @@ public class StudyBuddyApp {
             List<StudySession> all = new ArrayList<>(sessionCtl.allSessions());
             if (all.isEmpty()) { println("No sessions available."); return; }
             println("\nSessions:");
-            for (StudySession s : all) printSessionLine(s);
+            page(all, this::printSessionLine);
             int id = Integer.parseInt(prompt("Enter session ID to join: "));
             StudySession target = sessionCtl.getSession(id);
             if (target == null) { println("No such session."); return; }
             Student me = repo.getStudent(activeStudentId);
-            if (!me.courses.contains(target.course)) {
+            if (!me.isEnrolled(target.courseId)) {
                 println("You must be enrolled in " + target.course + " to join.");
                 return;
             }
@@ -601,8 +2874,7 @@ public class StudyBuddyApp {
          */
         private void confirmMyMeetings() {
             Student me = repo.getStudent(activeStudentId);
-            List<StudySession> mine = new ArrayList<>();
-            for (StudySession s : sessionCtl.allSessions()) if (s.isParticipant(me.id)) mine.add(s);
+            Collection<StudySession> mine = sessionCtl.sessionsFor(me.id);
             if (mine.isEmpty()) { println("You are not in any sessions yet. Join or create one first."); return; }
             println("\nYour sessions:");
             for (StudySession s : mine) printSessionLine(s);
@@ -613,7 +2885,7 @@ public class StudyBuddyApp {
             StudySession target = sessionCtl.getSession(id);
             if (target == null || !target.isParticipant(me.id)) { println("Invalid choice."); return; }
             println("Are you sure you want to meet for " + target.course + " at " + target.time +
-                    " with participants " + toNames(target.participantIds) + "? Type 'confirm' to proceed: ");
+                    " with participants " + toNames(target.participantIds()) + "? Type 'confirm' to proceed: ");
             String resp = prompt("");
             if (resp.equalsIgnoreCase("confirm")) {
                 sessionCtl.confirm(id, me.id);
@@ -628,15 +2900,49 @@ public class StudyBuddyApp {
          */
         private void viewAllStudentsAvailability() {
             println("\n-- Students' Availability --");
-            for (Student s : repo.allStudents()) {
+            page(new ArrayList<>(repo.allStudents()), s -> {
                 println("  " + s.name + " (" + s.courses + "):");
-                if (s.availability.isEmpty()) {
+                if (s.availability().isEmpty()) {
                     println("    (no availability added)");
                 } else {
-                    for (TimeSlot ts : s.availability) {
+                    for (TimeSlot ts : s.availability()) {
                         println("    - " + ts);
                     }
                 }
+            });
+        }
+
+        /**
+         * Prints a listing one page at a time, formatting only the rows on the page.
+         * At the prompt: Enter or n = next, p = previous, a number = new page size (kept for later
+         * listings), q = stop.
+         */
+        private <T> void page(List<T> rows, Consumer<T> printRow) {
+            int from = 0;
+            while (true) {
+                int to = Math.min(rows.size(), from + pageSize);
+                for (int i = from; i < to; i++) printRow.accept(rows.get(i));
+                if (from == 0 && to == rows.size()) return; // fits on one page
+                int pages = (rows.size() + pageSize - 1) / pageSize;
+                String cmd = prompt(String.format("-- page %d/%d (%d-%d of %d): [Enter/n]ext [p]rev [q]uit or page size> ",
+                        from / pageSize + 1, pages, from + 1, to, rows.size()));
+                if (cmd.isEmpty() || cmd.equalsIgnoreCase("n")) {
+                    if (to == rows.size()) return;
+                    from = to;
+                } else if (cmd.equalsIgnoreCase("p")) {
+                    from = Math.max(0, from - pageSize);
+                } else if (cmd.equalsIgnoreCase("q")) {
+                    return;
+                } else {
+                    try {
+                        int size = Integer.parseInt(cmd);
+                        if (size <= 0) throw new NumberFormatException();
+                        pageSize = size;
+                        from = from / size * size; // stay on the page holding the first row shown
+                    } catch (NumberFormatException e) {
+                        println("Use Enter/n, p, q or a positive page size.");
+                    }
+                }
             }
         }
 
@@ -646,8 +2952,8 @@ public class StudyBuddyApp {
          * Prints a session line with participant names and confirmation names.
          */
         private void printSessionLine(StudySession s) {
-            String participants = toNames(s.participantIds);
-            String confirmed = toNames(s.confirmedIds);
+            String participants = toNames(s.participantIds());
+            String confirmed = toNames(s.confirmedIds());
             String tail = s.isFullyConfirmed() ? " (ALL CONFIRMED)" : "";
             println("  [" + s.id + "] " + s.course + " | " + s.time +
                     " | participants=" + participants +
@@ -680,30 +2986,251 @@ public class StudyBuddyApp {
         }
 
         /** Prompts and trims a single line of input. */
-        private String prompt(String msg) { System.out.print(msg); return in.nextLine().trim(); }
+        private String prompt(String msg) {
+            out.print(msg);
+            out.flush(); // the only flush per command: everything printed so far goes out in one write
+            return in.nextLine().trim();
+        }
 
-        /** Convenience for printing a line. */
-        private void println(String s) { System.out.println(s); }
+        /** Convenience for printing a line (buffered until the next prompt). */
+        private void println(String s) { out.println(s); }
 
         /** Parses a time in HH:mm format. */
         private LocalTime parseTime(String s) { return LocalTime.parse(s, tf); }
+    }
+
+    /**
+     * Non-interactive front end: runs one command per line against the controllers and writes one
+     * JSON result per line, for scripting, replaying recorded traffic and load tests. Arguments are
+     * separated by spaces; double-quote an argument that contains spaces. Blank lines and '#'
+     * comments are skipped.
+     *
+     *   profile NAME [COURSE...]            -> {"line":1,"ok":true,"student":5}
+     *   enroll STUDENT COURSE
+     *   avail STUDENT DAY HH:mm HH:mm       (add availability)
+     *   busy STUDENT DAY HH:mm HH:mm        (remove a window of availability)
+     *   session COURSE DAY HH:mm HH:mm STUDENT...   -> "session":ID (everyone must be enrolled)
+     *   join SESSION STUDENT                (student must be enrolled in the course)
+     *   confirm SESSION STUDENT             (student must be a participant)
+     *   search all | search course COURSE | search name TEXT   -> "sessions":[ID...]
+     *   matches STUDENT COURSE [K]          -> "matches":[{"student":ID,"minutes":N}...]
+     *
+     * A failed command yields {"line":N,"ok":false,"error":"..."} and the run continues.
+     * Output is buffered and flushed whenever the input has nothing more ready (and at the end),
+     * so files run at full speed while piped sessions still see answers promptly.
+     */
+    static class BatchRunner {
+        private static final int DEFAULT_MATCHES = 10;
+
+        private final ProfileController profileCtl;
+        private final AvailabilityController availCtl;
+        private final SessionController sessionCtl;
+        private final Repository repo;
+
+        /** Wires controllers to the shared repository. */
+        BatchRunner(Repository repo) {
+            this.repo = repo;
+            this.profileCtl = new ProfileController(repo);
+            this.availCtl = new AvailabilityController(repo);
+            this.sessionCtl = new SessionController(repo);
+            sessionCtl.setParallel(true); // only kicks in for classes past PARALLEL_THRESHOLD
+        }
 
         /**
-         * Parses day input like "Mon", "monday", etc., into DayOfWeek.
+         * Runs every command from the reader, writing results to the writer.
+         * @return number of failed commands
          */
-        private DayOfWeek parseDay(String s) {
-            s = s.trim();
-            try { return DayOfWeek.valueOf(s.toUpperCase()); } catch (Exception ignored) {}
-            switch (s.toLowerCase()) {
-                case "mon": return DayOfWeek.MONDAY;
-                case "tue": case "tues": return DayOfWeek.TUESDAY;
-                case "wed": return DayOfWeek.WEDNESDAY;
-                case "thu": case "thur": case "thurs": return DayOfWeek.THURSDAY;
-                case "fri": return DayOfWeek.FRIDAY;
-                case "sat": return DayOfWeek.SATURDAY;
-                case "sun": return DayOfWeek.SUNDAY;
+        int run(BufferedReader in, Writer out) throws IOException {
+            BufferedWriter w = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out, 1 << 16);
+            StringBuilder sb = new StringBuilder(128);
+            int failures = 0;
+            long lineNo = 0;
+            for (String line; (line = in.readLine()) != null; ) {
+                lineNo++;
+                String t = line.trim();
+                if (t.isEmpty() || t.startsWith("#")) continue;
+                sb.setLength(0);
+                sb.append("{\"line\":").append(lineNo);
+                int mark = sb.length();
+                try {
+                    sb.append(",\"ok\":true");
+                    execute(tokenize(t), sb);
+                } catch (RuntimeException e) {
+                    failures++;
+                    sb.setLength(mark);
+                    sb.append(",\"ok\":false,\"error\":");
+                    quote(e.getMessage() != null ? e.getMessage() : e.toString(), sb);
+                }
+                w.append(sb).append("}\n");
+                if (!in.ready()) w.flush(); // caught up with the input: let a piped caller see the answers
+            }
+            w.flush();
+            return failures;
+        }
+
+        /** Executes one tokenized command, appending its result fields. */
+        private void execute(List<String> cmd, StringBuilder res) {
+            switch (cmd.get(0).toLowerCase(Locale.ROOT)) {
+                case "profile": {
+                    arity(cmd, 2, Integer.MAX_VALUE);
+                    Student s = profileCtl.createProfile(cmd.get(1), cmd.subList(2, cmd.size()));
+                    res.append(",\"student\":").append(s.id);
+                    break;
+                }
+                case "enroll":
+                    arity(cmd, 3, 3);
+                    student(cmd.get(1)).addCourse(cmd.get(2));
+                    break;
+                case "avail":
+                    arity(cmd, 5, 5);
+                    availCtl.addAvailability(student(cmd.get(1)).id, slot(cmd, 2));
+                    break;
+                case "busy":
+                    arity(cmd, 5, 5);
+                    res.append(",\"removed\":").append(availCtl.removeAvailability(student(cmd.get(1)).id, slot(cmd, 2)));
+                    break;
+                case "session": {
+                    arity(cmd, 6, Integer.MAX_VALUE);
+                    int courseId = CourseRegistry.SHARED.idOf(cmd.get(1)); // never intern: a typo must not grow the shared registry
+                    List<Integer> ids = new ArrayList<>();
+                    for (String a : cmd.subList(5, cmd.size())) {
+                        Student s = student(a);
+                        if (courseId < 0) throw new IllegalArgumentException("Student " + s.id + " is not enrolled in " + normalizeCourse(cmd.get(1)));
+                        ids.add(enrolled(s, courseId).id);
+                    }
+                    StudySession ss = sessionCtl.create(cmd.get(1), slot(cmd, 2), ids);
+                    res.append(",\"session\":").append(ss.id);
+                    break;
+                }
+                case "join": {
+                    arity(cmd, 3, 3);
+                    StudySession ss = session(cmd.get(1));
+                    sessionCtl.join(ss.id, enrolled(student(cmd.get(2)), ss.courseId).id);
+                    break;
+                }
+                case "confirm": {
+                    arity(cmd, 3, 3);
+                    StudySession ss = session(cmd.get(1));
+                    Student s = student(cmd.get(2));
+                    if (!ss.isParticipant(s.id)) throw new IllegalArgumentException("Student " + s.id + " is not in session " + ss.id);
+                    sessionCtl.confirm(ss.id, s.id);
+                    break;
+                }
+                case "search": {
+                    arity(cmd, 2, 3);
+                    String by = cmd.get(1).toLowerCase(Locale.ROOT);
+                    Collection<StudySession> found;
+                    if (by.equals("all") && cmd.size() == 2) found = sessionCtl.allSessions();
+                    else if (by.equals("course") && cmd.size() == 3) found = sessionCtl.searchByCourse(cmd.get(2));
+                    else if (by.equals("name") && cmd.size() == 3) found = sessionCtl.searchByStudentName(cmd.get(2));
+                    else throw new IllegalArgumentException("Usage: search all | search course COURSE | search name TEXT");
+                    res.append(",\"sessions\":[");
+                    int n = 0;
+                    for (StudySession ss : found) res.append(n++ == 0 ? "" : ",").append(ss.id);
+                    res.append(']');
+                    break;
+                }
+                case "matches": {
+                    arity(cmd, 3, 4);
+                    int k = cmd.size() == 4 ? number(cmd.get(3)) : DEFAULT_MATCHES;
+                    List<Match> top = sessionCtl.topMatches(student(cmd.get(1)).id, cmd.get(2), k, 0, null);
+                    res.append(",\"matches\":[");
+                    for (int i = 0; i < top.size(); i++) {
+                        res.append(i == 0 ? "" : ",").append("{\"student\":").append(top.get(i).peer.id)
+                                .append(",\"minutes\":").append(top.get(i).totalMinutes).append('}');
+                    }
+                    res.append(']');
+                    break;
+                }
+                default: throw new IllegalArgumentException("Unknown command '" + cmd.get(0) + "'");
+            }
+        }
+
+        /** Checks the argument count (including the command itself). */
+        private static void arity(List<String> cmd, int min, int max) {
+            if (cmd.size() < min || cmd.size() > max) throw new IllegalArgumentException("Wrong number of arguments for " + cmd.get(0));
+        }
+
+        /** Parses a non-negative integer argument. */
+        private static int number(String s) {
+            try {
+                int n = Integer.parseInt(s);
+                if (n >= 0) return n;
+            } catch (NumberFormatException ignored) {}
+            throw new IllegalArgumentException("Not a valid number: " + s);
+        }
+
+        /** Looks up a student by ID argument. */
+        private Student student(String arg) {
+            Student s = repo.getStudent(number(arg));
+            if (s == null) throw new IllegalArgumentException("No student " + arg);
+            return s;
+        }
+
+        /** Looks up a session by ID argument. */
+        private StudySession session(String arg) {
+            StudySession ss = sessionCtl.getSession(number(arg));
+            if (ss == null) throw new IllegalArgumentException("No session " + arg);
+            return ss;
+        }
+
+        /** Returns the student if enrolled in the course, else fails like the CLI's course check. */
+        private static Student enrolled(Student s, int courseId) {
+            if (!s.isEnrolled(courseId)) throw new IllegalArgumentException("Student " + s.id + " is not enrolled in " + CourseRegistry.SHARED.code(courseId));
+            return s;
+        }
+
+        /** Builds a slot from DAY HH:mm HH:mm arguments starting at index i. */
+        private static TimeSlot slot(List<String> cmd, int i) {
+            try {
+                return new TimeSlot(parseDay(cmd.get(i)), LocalTime.parse(cmd.get(i + 1)), LocalTime.parse(cmd.get(i + 2)));
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Bad time: " + e.getMessage());
+            }
+        }
+
+        /** Splits a command line on spaces; double quotes group words, "" inside quotes is a literal quote. */
+        static List<String> tokenize(String line) {
+            List<String> res = new ArrayList<>();
+            StringBuilder cur = new StringBuilder();
+            boolean quoted = false, inToken = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') cur.append(c);
+                    else if (i + 1 < line.length() && line.charAt(i + 1) == '"') { cur.append('"'); i++; }
+                    else quoted = false;
+                } else if (c == '"') {
+                    quoted = inToken = true;
+                } else if (Character.isWhitespace(c)) {
+                    if (inToken) { res.add(cur.toString()); cur.setLength(0); inToken = false; }
+                } else {
+                    cur.append(c);
+                    inToken = true;
+                }
             }
-            throw new IllegalArgumentException("Unrecognized day: " + s);
+            if (quoted) throw new IllegalArgumentException("Unterminated quote");
+            if (inToken) res.add(cur.toString());
+            return res;
+        }
+
+        /** Appends s as a JSON string literal. */
+        static void quote(String s, StringBuilder out) {
+            out.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"': out.append("\\\""); break;
+                    case '\\': out.append("\\\\"); break;
+                    case '\n': out.append("\\n"); break;
+                    case '\r': out.append("\\r"); break;
+                    case '\t': out.append("\\t"); break;
+                    default:
+                        if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                        else out.append(c);
+                }
+            }
+            out.append('"');
         }
     }
 
@@ -711,11 +3238,53 @@ public class StudyBuddyApp {
 
     /**
      * Program entrypoint. Creates the repository and launches the CLI.
+     * Usage: {@code java StudyBuddyApp [--wal <file>] [--snapshot <file>] [--snapshot-every <seconds>] [--import <file>] [--batch <file>|-]}.
+     * State is loaded from the snapshot, then the log is replayed from where the snapshot left off;
+     * every change is appended to the log, and the snapshot is rewritten periodically and on exit.
+     * With {@code --import}, the roster file is bulk-loaded ({@link RosterImporter}); with {@code --batch},
+     * commands are read from the file or stdin ({@link BatchRunner}); either replaces the interactive CLI.
      */
-    public static void main(String[] args) {
-        Repository repo = new Repository();
-        CLI cli = new CLI(repo);
-        cli.run();
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path walFile = null, snapshotFile = null, importFile = null;
+        String batchInput = null;
+        long snapshotEvery = 300;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--wal") && i + 1 < args.length) walFile = Paths.get(args[++i]);
+            else if (args[i].equals("--snapshot") && i + 1 < args.length) snapshotFile = Paths.get(args[++i]);
+            else if (args[i].equals("--snapshot-every") && i + 1 < args.length) snapshotEvery = Long.parseLong(args[++i]);
+            else if (args[i].equals("--import") && i + 1 < args.length) importFile = Paths.get(args[++i]);
+            else if (args[i].equals("--batch") && i + 1 < args.length) batchInput = args[++i];
+            else throw new IllegalArgumentException("Unknown argument: " + args[i]);
+        }
+        // snapshots are written from a background thread, so persistent runs share a concurrent repository
+        Repository repo = walFile == null && snapshotFile == null ? new Repository() : Repository.concurrent();
+        long from = snapshotFile != null && Files.exists(snapshotFile) ? Snapshot.load(snapshotFile, repo) : 0;
+        WriteAheadLog wal = walFile == null ? null : WriteAheadLog.open(walFile, repo, from);
+        ScheduledExecutorService snapshots = snapshotFile == null ? null : Snapshot.schedule(repo, snapshotFile, snapshotEvery);
+        try {
+            if (importFile != null) {
+                RosterImporter.Report report = new RosterImporter(repo).importFile(importFile);
+                System.out.println(report);
+                for (String m : report.messages) System.out.println("  " + m);
+            } else if (batchInput != null) {
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+                try (BufferedReader in = batchInput.equals("-")
+                        ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                        : Files.newBufferedReader(Paths.get(batchInput), StandardCharsets.UTF_8)) {
+                    new BatchRunner(repo).run(in, out);
+                }
+            } else {
+                CLI cli = new CLI(repo);
+                cli.run();
+            }
+        } finally {
+            if (snapshots != null) {
+                snapshots.shutdown();
+                snapshots.awaitTermination(1, TimeUnit.MINUTES);
+                Snapshot.write(repo, snapshotFile);
+            }
+            if (wal != null) wal.close();
+        }
     }
 
     // ======== UTIL ======== //
@@ -724,4 +3293,22 @@ public class StudyBuddyApp {
      * Normalizes a course code (e.g., "cpsc 3720" -> "CPSC 3720").
      */
     static String normalizeCourse(String c) { return c.trim().toUpperCase(Locale.ROOT); }
+
+    /**
+     * Parses day input like "Mon", "monday", etc., into DayOfWeek.
+     */
+    static DayOfWeek parseDay(String s) {
+        s = s.trim();
+        try { return DayOfWeek.valueOf(s.toUpperCase()); } catch (Exception ignored) {}
+        switch (s.toLowerCase()) {
+            case "mon": return DayOfWeek.MONDAY;
+            case "tue": case "tues": return DayOfWeek.TUESDAY;
+            case "wed": return DayOfWeek.WEDNESDAY;
+            case "thu": case "thur": case "thurs": return DayOfWeek.THURSDAY;
+            case "fri": return DayOfWeek.FRIDAY;
+            case "sat": return DayOfWeek.SATURDAY;
+            case "sun": return DayOfWeek.SUNDAY;
+        }
+        throw new IllegalArgumentException("Unrecognized day: " + s);
+    }
 }
@@ -5,6 +5,7 @@ import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,6 +58,13 @@ public class StudyBuddyAppTest {
         assertThrows(IllegalArgumentException.class, () ->
                 new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY,
                         LocalTime.of(11,0), LocalTime.of(10,0)));
+        // sub-minute times would be stored truncated (10:00-10:00:30 as an empty slot)
+        assertThrows(IllegalArgumentException.class, () ->
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY,
+                        LocalTime.of(10,0), LocalTime.of(10,0,30)));
+        assertThrows(IllegalArgumentException.class, () ->
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY,
+                        LocalTime.of(10,0,30), LocalTime.of(11,0)));
     }
 
     @Test
@@ -73,6 +81,27 @@ public class StudyBuddyAppTest {
         assertEquals(LocalTime.of(12,0), inter.end);
     }
 
+    @Test
+    void timeSlot_packedMinuteOfWeekIntersection() {
+        StudyBuddyApp.TimeSlot a = new StudyBuddyApp.TimeSlot(DayOfWeek.TUESDAY,
+                LocalTime.of(9,0), LocalTime.of(11,0));
+        StudyBuddyApp.TimeSlot b = new StudyBuddyApp.TimeSlot(DayOfWeek.TUESDAY,
+                LocalTime.of(10,30), LocalTime.of(12,0));
+        StudyBuddyApp.TimeSlot wed = new StudyBuddyApp.TimeSlot(DayOfWeek.WEDNESDAY,
+                LocalTime.of(10,30), LocalTime.of(12,0));
+
+        assertEquals(24 * 60 + 9 * 60, a.startMin);
+        long p = StudyBuddyApp.TimeSlot.intersect(a.packed(), b.packed());
+        StudyBuddyApp.TimeSlot inter = StudyBuddyApp.TimeSlot.fromPacked(p);
+        assertEquals(DayOfWeek.TUESDAY, inter.day);
+        assertEquals(LocalTime.of(10,30), inter.start);
+        assertEquals(LocalTime.of(11,0), inter.end);
+
+        assertEquals(StudyBuddyApp.TimeSlot.NONE, StudyBuddyApp.TimeSlot.intersect(a.packed(), wed.packed()));
+        assertFalse(a.overlaps(wed));
+        assertNull(a.intersection(wed));
+    }
+
     // ---- Profile / Availability ----
 
     @Test
@@ -87,15 +116,15 @@ public class StudyBuddyAppTest {
     @Test
     void availabilityController_addAndRemove() {
         StudyBuddyApp.Student alice = repo.getStudent(aliceId);
-        int before = alice.availability.size();
+        int before = alice.availability().size();
 
         availCtl.addAvailability(aliceId,
                 new StudyBuddyApp.TimeSlot(DayOfWeek.WEDNESDAY,
                         LocalTime.of(10,0), LocalTime.of(11,0)));
-        assertEquals(before + 1, alice.availability.size());
+        assertEquals(before + 1, alice.availability().size());
 
         assertTrue(availCtl.removeAvailability(aliceId, before)); // remove the one we just added
-        assertEquals(before, alice.availability.size());
+        assertEquals(before, alice.availability().size());
     }
 
     // ---- Repository lookups ----
@@ -169,4 +198,750 @@ public class StudyBuddyAppTest {
                         ts.end.equals(LocalTime.of(16,0)));
         assertTrue(hasExpected);
     }
+
+    @Test
+    void suggestMatches_bitmaskModeMatchesPairwiseOnQuarterHours() {
+        availCtl.addAvailability(aliceId,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.FRIDAY, LocalTime.of(8,0), LocalTime.of(9,45)));
+        availCtl.addAvailability(bobId,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.FRIDAY, LocalTime.of(9,15), LocalTime.of(10,0)));
+
+        var exact = sessionCtl.suggestMatches(aliceId, "CPSC 3720", StudyBuddyApp.MatchMode.PAIRWISE);
+        var masked = sessionCtl.suggestMatches(aliceId, "CPSC 3720", StudyBuddyApp.MatchMode.BITMASK);
+        assertEquals(exact.toString(), masked.toString());
+
+        // removing Bob's Monday slot must clear his Monday buckets
+        assertTrue(availCtl.removeAvailability(bobId, 0));
+        masked = sessionCtl.suggestMatches(aliceId, "CPSC 3720", StudyBuddyApp.MatchMode.BITMASK);
+        assertEquals("[FRIDAY 09:15-09:45]", masked.values().iterator().next().toString());
+    }
+
+    @Test
+    void classmatesInCourse_followsEnrollAndDrop() {
+        assertTrue(profileCtl.dropCourse(bobId, "cpsc 3720"));
+        assertFalse(profileCtl.dropCourse(bobId, "CPSC 3720"));
+        assertTrue(repo.classmatesInCourse(aliceId, "CPSC 3720").isEmpty());
+
+        repo.getStudent(maryId).addCourse("CPSC 3720");
+        repo.getStudent(bobId).addCourse("CPSC 3720");
+        List<StudyBuddyApp.Student> cls = repo.classmatesInCourse(aliceId, "CPSC 3720");
+        // ordered by student ID, like the roster
+        assertEquals(List.of("Bob", "Mary"), cls.stream().map(s -> s.name).toList());
+    }
+
+    @Test
+    void searchByCourse_returnsReadOnlyViewInCreationOrder() {
+        assertTrue(sessionCtl.searchByCourse("CPSC 3720").isEmpty());
+        StudyBuddyApp.TimeSlot mon = new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(15,0), LocalTime.of(16,0));
+        StudyBuddyApp.StudySession s1 = sessionCtl.create("CPSC 3720", mon, List.of(aliceId));
+        sessionCtl.create("MATH 3110", mon, List.of(jonId));
+        StudyBuddyApp.StudySession s3 = sessionCtl.create(" cpsc 3720 ", mon, List.of(bobId));
+
+        List<StudyBuddyApp.StudySession> byCourse = sessionCtl.searchByCourse("CPSC 3720");
+        assertEquals(List.of(s1.id, s3.id), byCourse.stream().map(s -> s.id).toList());
+        assertThrows(UnsupportedOperationException.class, () -> byCourse.add(s1));
+    }
+
+    @Test
+    void sessionsFor_tracksCreateAndJoin() {
+        StudyBuddyApp.TimeSlot mon = new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(15,0), LocalTime.of(16,0));
+        StudyBuddyApp.StudySession s1 = sessionCtl.create("CPSC 3720", mon, List.of(aliceId, bobId));
+        StudyBuddyApp.StudySession s2 = sessionCtl.create("CPSC 3720", mon, List.of(bobId));
+        assertTrue(sessionCtl.sessionsFor(maryId).isEmpty());
+        assertEquals(1, sessionCtl.sessionsFor(aliceId).size());
+
+        sessionCtl.join(s2.id, aliceId);
+        sessionCtl.join(s2.id, aliceId);
+        assertEquals(List.of(s1.id, s2.id), sessionCtl.sessionsFor(aliceId).stream().map(s -> s.id).toList());
+    }
+
+    @Test
+    void searchByStudentName_usesTrigramsAndShortQueries() {
+        StudyBuddyApp.TimeSlot mon = new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(15,0), LocalTime.of(16,0));
+        StudyBuddyApp.StudySession s1 = sessionCtl.create("MATH 3110", mon, List.of(maryId));
+        StudyBuddyApp.StudySession s2 = sessionCtl.create("CPSC 3720", mon, List.of(aliceId));
+        sessionCtl.join(s1.id, aliceId);
+
+        assertEquals(List.of(s1.id, s2.id), sessionCtl.searchByStudentName("LIC").stream().map(s -> s.id).toList());
+        assertEquals(List.of(s1.id), sessionCtl.searchByStudentName("mary").stream().map(s -> s.id).toList());
+        assertEquals(List.of(s1.id, s2.id), sessionCtl.searchByStudentName("a").stream().map(s -> s.id).toList());
+        assertTrue(sessionCtl.searchByStudentName("ali x").isEmpty());
+        assertTrue(sessionCtl.searchByStudentName("bob").isEmpty()); // Bob exists but is in no session
+    }
+
+    @Test
+    void concurrentRepository_parallelCreateEnrollAndJoin() throws Exception {
+        StudyBuddyApp.Repository shared = StudyBuddyApp.Repository.concurrent();
+        StudyBuddyApp.SessionController ctl = new StudyBuddyApp.SessionController(shared);
+        StudyBuddyApp.StudySession review = ctl.create("CPSC 3720",
+                new StudyBuddyApp.TimeSlot(DayOfWeek.FRIDAY, LocalTime.of(13,0), LocalTime.of(15,0)), List.of());
+
+        int threads = 8, perThread = 250;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    StudyBuddyApp.Student s = shared.createStudent("Zed " + i);
+                    s.addCourse("CPSC 3720");
+                    ctl.join(review.id, s.id);
+                }
+            });
+            workers[t].start();
+        }
+        // name searches racing the creations must only ever see fully published students
+        java.util.concurrent.atomic.AtomicReference<Throwable> searchFailure = new java.util.concurrent.atomic.AtomicReference<>();
+        Thread searcher = new Thread(() -> {
+            try {
+                while (shared.allStudents().size() < threads * perThread) shared.searchSessionsByStudentName("zed");
+            } catch (Throwable e) {
+                searchFailure.set(e);
+            }
+        });
+        searcher.start();
+        for (Thread w : workers) w.join();
+        searcher.join();
+        assertNull(searchFailure.get());
+        assertEquals(List.of(review), shared.searchSessionsByStudentName("zed"));
+
+        int total = threads * perThread;
+        assertEquals(total, shared.allStudents().size());
+        assertEquals(total - 1, shared.classmatesInCourse(1, "CPSC 3720").size());
+        int prev = 0;
+        for (StudyBuddyApp.Student s : shared.allStudents()) { assertTrue(s.id > prev); prev = s.id; }
+        assertEquals(total, prev);
+        assertEquals(1, ctl.sessionsFor(total).size());
+        for (int id = 1; id <= total; id++) assertTrue(review.isParticipant(id));
+    }
+
+    @Test
+    void session_concurrentJoinAndConfirmKeepCounts() throws Exception {
+        StudyBuddyApp.StudySession s = new StudyBuddyApp.StudySession(1, "CPSC 3720",
+                new StudyBuddyApp.TimeSlot(DayOfWeek.FRIDAY, LocalTime.of(13,0), LocalTime.of(15,0)), List.of());
+        assertFalse(s.isFullyConfirmed());
+
+        int threads = 8, perThread = 100;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int base = 1000 + t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) { s.addParticipant(base + i); s.confirm(base + i); }
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) w.join();
+
+        assertEquals(threads * perThread, s.participantIds().size());
+        assertEquals(threads * perThread, s.confirmedIds().size());
+        assertTrue(s.isFullyConfirmed());
+        s.confirm(42); // not a participant: ignored
+        s.addParticipant(42);
+        assertFalse(s.isFullyConfirmed());
+        assertThrows(UnsupportedOperationException.class, () -> s.participantIds().add(7));
+    }
+
+    @Test
+    void suggestMatches_sweepModeAgreesWithPairwise() {
+        java.util.Random rnd = new java.util.Random(3720);
+        for (int id : List.of(aliceId, bobId, jonId, maryId)) {
+            repo.getStudent(id).addCourse("ENGL 1030");
+            for (int i = 0; i < 12; i++) {
+                int start = 8 * 60 + rnd.nextInt(10 * 60);
+                int len = 5 + rnd.nextInt(180);
+                DayOfWeek day = DayOfWeek.of(1 + rnd.nextInt(5));
+                availCtl.addAvailability(id, new StudyBuddyApp.TimeSlot(day,
+                        LocalTime.of(start / 60, start % 60), LocalTime.of((start + len) / 60, (start + len) % 60)));
+            }
+        }
+        for (int id : List.of(aliceId, bobId, jonId, maryId)) {
+            var exact = sessionCtl.suggestMatches(id, "ENGL 1030", StudyBuddyApp.MatchMode.PAIRWISE);
+            var swept = sessionCtl.suggestMatches(id, "ENGL 1030", StudyBuddyApp.MatchMode.SWEEP);
+            assertEquals(exact.toString(), swept.toString());
+        }
+
+        sessionCtl.setMatchMode(StudyBuddyApp.MatchMode.SWEEP);
+        assertEquals(sessionCtl.suggestMatches(aliceId, "ENGL 1030", StudyBuddyApp.MatchMode.SWEEP).toString(),
+                sessionCtl.suggestMatches(aliceId, "ENGL 1030").toString());
+    }
+
+    @Test
+    void datasetGenerator_isDeterministicAndSkewed() {
+        StudyBuddyApp.Repository r1 = new StudyBuddyApp.Repository();
+        StudyBuddyApp.Repository r2 = new StudyBuddyApp.Repository();
+        new StudyBuddyApp.DatasetGenerator(42).students(400).courses(30).sessions(50).populate(r1);
+        new StudyBuddyApp.DatasetGenerator(42).students(400).courses(30).sessions(50).populate(r2);
+
+        assertEquals(400, r1.allStudents().size());
+        assertEquals(r1.allStudents().toString(), r2.allStudents().toString());
+        assertEquals(r1.allSessions().toString(), r2.allSessions().toString());
+        assertTrue(r1.allSessions().size() > 0);
+
+        int top = r1.classmatesInCourse(-1, StudyBuddyApp.DatasetGenerator.courseCode(0)).size();
+        int tail = r1.classmatesInCourse(-1, StudyBuddyApp.DatasetGenerator.courseCode(29)).size();
+        assertTrue(top > 3 * tail, "top=" + top + " tail=" + tail);
+    }
+
+    @Test
+    void topMatches_ranksByMinutesWithFilters() {
+        int cara = repo.createStudent("Cara").id;
+        int dev = repo.createStudent("Dev").id;
+        repo.getStudent(cara).addCourse("CPSC 3720");
+        repo.getStudent(dev).addCourse("CPSC 3720");
+        availCtl.addAvailability(cara,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(14,0), LocalTime.of(16,0)));  // 120 min with Alice
+        availCtl.addAvailability(dev,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(15,30), LocalTime.of(16,0))); // 30 min
+        availCtl.addAvailability(aliceId,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.THURSDAY, LocalTime.of(9,0), LocalTime.of(10,0)));
+        availCtl.addAvailability(dev,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.THURSDAY, LocalTime.of(9,0), LocalTime.of(10,0)));  // +60 min
+
+        var top = sessionCtl.topMatches(aliceId, "CPSC 3720", 2, 0, null);
+        assertEquals(List.of("Cara", "Dev"), top.stream().map(m -> m.peer.name).toList());
+        assertEquals(120, top.get(0).totalMinutes);
+        assertEquals(90, top.get(1).totalMinutes);
+
+        var longOnly = sessionCtl.topMatches(aliceId, "CPSC 3720", 10, 45, null);
+        assertEquals(List.of("Cara", "Bob", "Dev"), longOnly.stream().map(m -> m.peer.name).toList());
+        assertEquals(60, longOnly.get(2).totalMinutes); // Dev's 30-minute Monday window filtered out
+
+        var thursday = sessionCtl.topMatches(aliceId, "CPSC 3720", 10, 0, java.util.EnumSet.of(DayOfWeek.THURSDAY));
+        assertEquals(1, thursday.size());
+        assertEquals("[THURSDAY 09:00-10:00]", thursday.get(0).windows.toString());
+
+        // an unbounded k is capped by the class size, not allocated up front
+        assertEquals(3, sessionCtl.topMatches(aliceId, "CPSC 3720", Integer.MAX_VALUE, 0, null).size());
+        assertEquals(3, sessionCtl.topMatches(aliceId, "CPSC 3720", 1_000_000_000, 0, null).size());
+    }
+
+    @Test
+    void suggestMatches_parallelModeKeepsSequentialOrder() {
+        StudyBuddyApp.Repository big = new StudyBuddyApp.Repository();
+        new StudyBuddyApp.DatasetGenerator(7).students(3000).courses(2).coursesPerStudent(1, 1).sessions(0).populate(big);
+        StudyBuddyApp.SessionController ctl = new StudyBuddyApp.SessionController(big, 0); // no cache
+        String course = StudyBuddyApp.DatasetGenerator.courseCode(0);
+        assertTrue(big.classmatesInCourse(1, course).size() >= StudyBuddyApp.SessionController.PARALLEL_THRESHOLD);
+
+        for (StudyBuddyApp.MatchMode mode : StudyBuddyApp.MatchMode.values()) {
+            ctl.setParallel(false);
+            var sequential = ctl.suggestMatches(1, course, mode);
+            ctl.setParallel(true);
+            var parallel = ctl.suggestMatches(1, course, mode);
+            assertEquals(sequential.toString(), parallel.toString()); // TimeSlot has no equals; compare rendered output
+        }
+    }
+
+    @Test
+    void suggestMatches_cacheHitsUntilAvailabilityOrRosterChanges() {
+        StudyBuddyApp.MatchCache cache = sessionCtl.matchCache();
+        var first = sessionCtl.suggestMatches(aliceId, "CPSC 3720");
+        assertSame(first, sessionCtl.suggestMatches(aliceId, "cpsc 3720"));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+
+        // a peer's change invalidates
+        availCtl.addAvailability(bobId,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(13,0), LocalTime.of(14,30)));
+        var second = sessionCtl.suggestMatches(aliceId, "CPSC 3720");
+        assertNotSame(first, second);
+        assertEquals("[MONDAY 14:00-14:30, MONDAY 15:00-16:00]", second.values().iterator().next().toString());
+
+        // unrelated course: still a hit
+        availCtl.addAvailability(jonId,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(13,0), LocalTime.of(14,30)));
+        assertSame(second, sessionCtl.suggestMatches(aliceId, "CPSC 3720"));
+
+        // roster change invalidates
+        repo.getStudent(maryId).addCourse("CPSC 3720");
+        assertNotSame(second, sessionCtl.suggestMatches(aliceId, "CPSC 3720"));
+        assertEquals(2, cache.hits());
+        assertEquals(3, cache.misses());
+    }
+
+    @Test
+    void bestTimes_ranksCourseWindowsByStudentsFree() {
+        int cara = repo.createStudent("Cara").id;
+        repo.getStudent(cara).addCourse("CPSC 3720");
+        availCtl.addAvailability(cara,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(15,30), LocalTime.of(18,0)));
+        availCtl.addAvailability(cara,   // overlaps her own slot: must not count her twice
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(15,45), LocalTime.of(16,15)));
+        // Alice 14-16, Bob 15-17, Cara 15:30-18
+        var best = sessionCtl.bestTimes("cpsc 3720", 30, 3);
+        assertEquals(3, best.size());
+        assertEquals("MONDAY 15:30-16:00 (3 free)", best.get(0).toString());
+        assertEquals("MONDAY 15:00-17:00 (2 free)", best.get(1).toString());
+        assertEquals("MONDAY 14:00-18:00 (1 free)", best.get(2).toString());
+
+        assertTrue(sessionCtl.bestTimes("CPSC 3720", 45, 10).stream().noneMatch(w -> w.available == 3));
+        assertTrue(sessionCtl.bestTimes("HIST 1010", 0, 10).isEmpty());
+    }
+
+    @Test
+    void groupWindows_findsTimesWithAtLeastKFree() {
+        int cara = repo.createStudent("Cara").id;
+        availCtl.addAvailability(cara,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(16,0), LocalTime.of(18,0)));
+        availCtl.addAvailability(jonId,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(14,30), LocalTime.of(16,0)));
+        // Monday: Alice 14-16, Bob 15-17, Cara 16-18, Jon 14:30-16
+        List<Integer> group = List.of(aliceId, bobId, cara, jonId, jonId);
+
+        assertEquals("[MONDAY 15:00-16:00 (3 free)]", sessionCtl.groupWindows(group, 3).toString());
+        // Jon hands over to Cara at 16:00 without a gap in coverage
+        assertEquals("[MONDAY 14:30-17:00 (2 free)]", sessionCtl.groupWindows(group, 2).toString());
+        assertTrue(sessionCtl.groupWindows(group, 5).isEmpty());
+
+        assertEquals(1, sessionCtl.groupWindows("CPSC 3720", 2).size());
+        assertThrows(IllegalArgumentException.class, () -> sessionCtl.groupWindows(group, 0));
+    }
+
+    @Test
+    void availability_isCoalescedAndSplitInPlace() {
+        StudyBuddyApp.Student alice = repo.getStudent(aliceId); // MONDAY 14:00-16:00
+        availCtl.addAvailability(aliceId,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(9,0), LocalTime.of(10,0)));
+        availCtl.addAvailability(aliceId,   // touches 14:00-16:00
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(16,0), LocalTime.of(17,0)));
+        availCtl.addAvailability(aliceId,   // bridges both Monday slots
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(9,30), LocalTime.of(14,0)));
+        availCtl.addAvailability(aliceId,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.SUNDAY, LocalTime.of(8,0), LocalTime.of(9,0)));
+        assertEquals("[MONDAY 09:00-17:00, SUNDAY 08:00-09:00]", alice.availability().toString());
+
+        assertTrue(availCtl.removeAvailability(aliceId,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(12,0), LocalTime.of(13,10))));
+        assertFalse(availCtl.removeAvailability(aliceId,
+                new StudyBuddyApp.TimeSlot(DayOfWeek.TUESDAY, LocalTime.of(12,0), LocalTime.of(13,0))));
+        assertEquals("[MONDAY 09:00-12:00, MONDAY 13:10-17:00, SUNDAY 08:00-09:00]", alice.availability().toString());
+        assertArrayEquals(StudyBuddyApp.WeekMask.of(alice.availability()), alice.availabilityMask());
+    }
+
+    @Test
+    void mergeAdjacent_mergesPackedSlotsInPlace() {
+        long[] buf = {
+                StudyBuddyApp.TimeSlot.pack(600, 660),
+                StudyBuddyApp.TimeSlot.pack(2000, 2100),
+                StudyBuddyApp.TimeSlot.pack(540, 600),   // touches 600-660
+                StudyBuddyApp.TimeSlot.pack(630, 700),   // overlaps
+                StudyBuddyApp.TimeSlot.pack(1400, 1439),
+                0L, 0L };                                // spare capacity is ignored
+        int n = StudyBuddyApp.SessionController.mergeAdjacent(buf, 5, buf);
+        assertEquals(3, n);
+        assertEquals("MONDAY 09:00-11:40", StudyBuddyApp.TimeSlot.fromPacked(buf[0]).toString());
+        assertEquals("MONDAY 23:20-23:59", StudyBuddyApp.TimeSlot.fromPacked(buf[1]).toString());
+        assertEquals("TUESDAY 09:20-11:00", StudyBuddyApp.TimeSlot.fromPacked(buf[2]).toString());
+        assertEquals(0, StudyBuddyApp.SessionController.mergeAdjacent(buf, 0, buf));
+    }
+
+    @Test
+    void courseRegistry_internsSpellingsToOneId() {
+        StudyBuddyApp.CourseRegistry reg = StudyBuddyApp.CourseRegistry.SHARED;
+        int id = reg.intern("  cpsc 3720 ");
+        assertEquals(id, reg.idOf("CPSC 3720"));
+        assertEquals("CPSC 3720", reg.code(id));
+        assertEquals(-1, reg.idOf("NOPE 0000"));
+
+        StudyBuddyApp.Student alice = repo.getStudent(aliceId);
+        assertTrue(alice.isEnrolled(id));
+        assertFalse(alice.isEnrolled(reg.idOf("MATH 3110")));
+        assertEquals(1, repo.classmatesInCourse(aliceId, id).size());
+
+        StudyBuddyApp.StudySession s = sessionCtl.create("cpsc 3720", new StudyBuddyApp.TimeSlot(
+                DayOfWeek.MONDAY, LocalTime.of(15, 0), LocalTime.of(16, 0)), List.of(aliceId));
+        assertEquals(id, s.courseId);
+        assertEquals("CPSC 3720", s.course);
+
+        assertTrue(profileCtl.dropCourse(aliceId, "Cpsc 3720"));
+        assertFalse(alice.isEnrolled(id));
+        assertFalse(alice.courses.contains("CPSC 3720"));
+        assertEquals(0, repo.classmatesInCourse(bobId, id).size());
+    }
+
+    @Test
+    void intSet_keepsJoinOrderAcrossRepresentations() {
+        StudyBuddyApp.IntSet dense = StudyBuddyApp.IntSet.EMPTY, sparse = StudyBuddyApp.IntSet.EMPTY;
+        for (int i = 0; i < 200; i++) {
+            dense = dense.with(1000 - i);       // large and contiguous: bitmap
+            sparse = sparse.with(i * 100_003); // large and spread out: sorted copy
+        }
+        assertEquals(200, dense.size());
+        assertEquals(1000, dense.get(0));
+        assertEquals(801, dense.get(199));
+        assertTrue(dense.contains(900));
+        assertFalse(dense.contains(800));
+        assertTrue(sparse.contains(199 * 100_003));
+        assertFalse(sparse.contains(100_004));
+        assertTrue(sparse.contains((Object) 100_003));
+
+        StudyBuddyApp.StudySession s = new StudyBuddyApp.StudySession(1, "CPSC 3720",
+                new StudyBuddyApp.TimeSlot(DayOfWeek.FRIDAY, LocalTime.of(13,0), LocalTime.of(15,0)), List.of(5, 3, 5, 9));
+        assertEquals(List.of(5, 3, 9), new java.util.ArrayList<>(s.participantIds()));
+        s.confirm(9);
+        s.confirm(5);
+        assertArrayEquals(new int[] {9, 5}, s.confirmedIds().toIntArray());
+        assertThrows(UnsupportedOperationException.class, () -> s.confirmedIds().add(3));
+    }
+
+    @Test
+    void writeAheadLog_replaysMutationsAndGroupsCommits() throws Exception {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("studybuddy", ".wal");
+        try {
+            StudyBuddyApp.Repository live = StudyBuddyApp.Repository.concurrent();
+            StudyBuddyApp.WriteAheadLog log = StudyBuddyApp.WriteAheadLog.open(file, live);
+            StudyBuddyApp.Student ann = live.createStudent("Ann");
+            ann.addCourse("cpsc 3720");
+            ann.addCourse("MATH 3110");
+            ann.dropCourse("MATH 3110");
+            ann.addAvailability(new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(9,0), LocalTime.of(12,0)));
+            ann.removeAvailability(new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(10,0), LocalTime.of(11,0)));
+            StudyBuddyApp.StudySession ss = live.createSession("CPSC 3720",
+                    new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(9,0), LocalTime.of(10,0)), List.of(ann.id));
+
+            int threads = 8, perThread = 25;
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        StudyBuddyApp.Student s = live.createStudent("Peer");
+                        ss.addParticipant(s.id);
+                        ss.confirm(s.id);
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread w : workers) w.join();
+            assertTrue(log.syncs() < 7 + threads * perThread * 3, "concurrent appends share flushes");
+            log.close();
+
+            // a torn tail (crash mid-write) is ignored and truncated
+            java.nio.file.Files.write(file, new byte[] {0, 0, 0, 9, 1}, java.nio.file.StandardOpenOption.APPEND);
+            StudyBuddyApp.Repository restored = new StudyBuddyApp.Repository();
+            StudyBuddyApp.WriteAheadLog reopened = StudyBuddyApp.WriteAheadLog.open(file, restored);
+            StudyBuddyApp.Student ann2 = restored.getStudent(ann.id);
+            assertEquals("[CPSC 3720]", ann2.courses.toString());
+            assertEquals("[MONDAY 09:00-10:00, MONDAY 11:00-12:00]", ann2.availability().toString());
+            StudyBuddyApp.StudySession ss2 = restored.getSession(ss.id);
+            assertEquals(1 + threads * perThread, ss2.participantIds().size());
+            assertEquals(threads * perThread, ss2.confirmedIds().size());
+            assertEquals(1 + threads * perThread, restored.allStudents().size());
+
+            StudyBuddyApp.Student next = restored.createStudent("Late");
+            assertEquals(2 + threads * perThread, next.id);
+            reopened.close();
+            StudyBuddyApp.Repository again = new StudyBuddyApp.Repository();
+            StudyBuddyApp.WriteAheadLog.replay(file, again);
+            assertEquals(2 + threads * perThread, again.allStudents().size());
+        } finally {
+            java.nio.file.Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void snapshot_roundTripsAndReplaysLogTail() throws Exception {
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("studybuddy");
+        java.nio.file.Path wal = dir.resolve("app.wal"), snap = dir.resolve("app.snap");
+        try {
+            StudyBuddyApp.Repository live = StudyBuddyApp.Repository.concurrent();
+            StudyBuddyApp.WriteAheadLog log = StudyBuddyApp.WriteAheadLog.open(wal, live);
+            new StudyBuddyApp.DatasetGenerator(7).students(300).courses(12).sessions(80).populate(live);
+            StudyBuddyApp.Snapshot.write(live, snap);
+
+            // changes after the snapshot live only in the log
+            StudyBuddyApp.Student late = live.createStudent("Late Comer");
+            late.addCourse("CPSC 3720");
+            live.getStudent(1).removeAvailability(0);
+            live.getSession(1).addParticipant(late.id);
+            log.close();
+
+            StudyBuddyApp.Repository restored = StudyBuddyApp.Repository.concurrent();
+            long from = StudyBuddyApp.Snapshot.load(snap, restored);
+            assertTrue(from > 0);
+            assertEquals(300, restored.allStudents().size());
+            StudyBuddyApp.WriteAheadLog reopened = StudyBuddyApp.WriteAheadLog.open(wal, restored, from);
+
+            assertEquals(live.allStudents().size(), restored.allStudents().size());
+            for (StudyBuddyApp.Student s : live.allStudents()) {
+                assertEquals(s.toString(), restored.getStudent(s.id).toString());
+                assertEquals(s.availability().toString(), restored.getStudent(s.id).availability().toString());
+            }
+            for (StudyBuddyApp.StudySession ss : live.allSessions()) {
+                StudyBuddyApp.StudySession copy = restored.getSession(ss.id);
+                assertEquals(ss.toString(), copy.toString());
+                assertArrayEquals(ss.participantIds().toIntArray(), copy.participantIds().toIntArray());
+                assertArrayEquals(ss.confirmedIds().toIntArray(), copy.confirmedIds().toIntArray());
+            }
+            assertEquals(late.id + 1, restored.createStudent("Next").id);
+            reopened.close();
+        } finally {
+            for (java.nio.file.Path p : List.of(wal, snap, dir)) java.nio.file.Files.deleteIfExists(p);
+        }
+    }
+
+    @Test
+    void rosterImporter_streamsCsvAndJsonInFileOrder() throws Exception {
+        StringBuilder file = new StringBuilder("type,student,value\n# registrar export\n");
+        for (int i = 0; i < 50; i++) {
+            file.append("student,s").append(i).append(",\"Doe, Jane ").append(i).append("\"\n");
+            file.append("enroll,s").append(i).append(",cpsc 3720\n");
+            file.append("{\"type\":\"avail\",\"student\":\"s").append(i).append("\",\"day\":\"Wed\",\"start\":\"10:00\",\"end\":\"11:00\"}\n");
+        }
+        file.append("avail,s1,Wed,11:00,12:00\n");       // touches the earlier slot: merged
+        file.append("avail,s2,Wed,12:00,11:00\n");       // end before start
+        file.append("enroll,nobody,CPSC 3720\n");        // unknown key
+        file.append("enroll,").append(aliceId).append(",ENGL 1030\n"); // existing student by ID
+        file.append("{\"type\":\"student\",\"student\":\"s3\",\"name\":\"Again\"}\n"); // duplicate key
+        file.append("{\"type\":\"student\"\n");          // malformed JSON
+
+        StudyBuddyApp.RosterImporter importer = new StudyBuddyApp.RosterImporter(repo, 7, 3);
+        StudyBuddyApp.RosterImporter.Report report = importer.importFrom(new java.io.BufferedReader(new java.io.StringReader(file.toString())));
+
+        assertEquals(50, report.students);
+        assertEquals(51, report.enrollments);
+        assertEquals(51, report.slots);
+        assertEquals(4, report.errors);
+        assertTrue(report.messages.get(0).startsWith("line 154: "), report.messages.get(0));
+        assertEquals(2 + 50, repo.studentsInCourse("CPSC 3720").size());
+        StudyBuddyApp.Student first = repo.getStudent(maryId + 1);
+        assertEquals("Doe, Jane 0", first.name);
+        StudyBuddyApp.Student second = repo.getStudent(maryId + 2);
+        assertEquals("[WEDNESDAY 10:00-12:00]", second.availability().toString());
+        assertTrue(repo.getStudent(aliceId).courses.contains("ENGL 1030"));
+    }
+
+    @Test
+    void batchRunner_runsCommandsAndReportsJsonLines() throws Exception {
+        String script = String.join("\n",
+                "# recorded traffic",
+                "profile \"Tim O'Connell\" \"cpsc 3720\"",
+                "avail 5 Mon 15:00 16:00",
+                "matches 5 \"CPSC 3720\" 1",
+                "session \"CPSC 3720\" Mon 15:00 16:00 5 " + aliceId,
+                "join 1 " + jonId,
+                "join 1 " + bobId,
+                "confirm 1 " + bobId,
+                "search name \"o'con\"",
+                "avail 5 Funday 10:00 11:00",
+                "session \"cpsc 3270\" Mon 15:00 16:00 5",
+                "");
+        java.io.StringWriter out = new java.io.StringWriter();
+        int failures = new StudyBuddyApp.BatchRunner(repo).run(
+                new java.io.BufferedReader(new java.io.StringReader(script)), out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(10, lines.length);
+        assertEquals("{\"line\":2,\"ok\":true,\"student\":5}", lines[0]);
+        assertEquals("{\"line\":4,\"ok\":true,\"matches\":[{\"student\":" + aliceId + ",\"minutes\":60}]}", lines[2]);
+        assertEquals("{\"line\":5,\"ok\":true,\"session\":1}", lines[3]);
+        assertEquals("{\"line\":6,\"ok\":false,\"error\":\"Student " + jonId + " is not enrolled in CPSC 3720\"}", lines[4]);
+        assertEquals("{\"line\":9,\"ok\":true,\"sessions\":[1]}", lines[7]);
+        assertTrue(lines[8].startsWith("{\"line\":10,\"ok\":false,\"error\":\"Unrecognized day"), lines[8]);
+        assertEquals("{\"line\":11,\"ok\":false,\"error\":\"Student 5 is not enrolled in CPSC 3270\"}", lines[9]);
+        assertEquals(-1, StudyBuddyApp.CourseRegistry.SHARED.idOf("CPSC 3270")); // a typo is not interned
+        assertEquals(3, failures);
+        assertTrue(repo.getSession(1).confirmedIds().contains(bobId));
+        assertFalse(repo.getSession(1).isFullyConfirmed());
+    }
+
+    @Test
+    void cli_pagesLongListingsAndBuffersOutput() {
+        StudyBuddyApp.TimeSlot t = new StudyBuddyApp.TimeSlot(DayOfWeek.FRIDAY, LocalTime.of(9,0), LocalTime.of(10,0));
+        for (int i = 0; i < 45; i++) sessionCtl.create("CPSC 3720", t, List.of(aliceId));
+        String script = String.join("\n",
+                "Tim", "0",      // profile
+                "4", "a",        // search all sessions: page 1 (20 rows)
+                "",              // next: rows 21-40
+                "5",             // page size 5: stays on the page holding row 21
+                "q",
+                "0", "");
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        new StudyBuddyApp.CLI(repo, new java.io.ByteArrayInputStream(script.getBytes()), out).run();
+
+        String text = out.toString();
+        assertTrue(text.contains("-- page 1/3 (1-20 of 45)"), text);
+        assertTrue(text.contains("-- page 2/3 (21-40 of 45)"));
+        assertTrue(text.contains("-- page 5/9 (21-25 of 45)"));
+        assertEquals(20 + 20 + 5, text.split("CPSC 3720 \\| FRIDAY").length - 1); // session rows actually formatted
+        assertTrue(text.trim().endsWith("Goodbye!"));
+
+        // input ending mid-session stops the CLI instead of spinning on errors
+        java.io.ByteArrayOutputStream cut = new java.io.ByteArrayOutputStream();
+        new StudyBuddyApp.CLI(repo, new java.io.ByteArrayInputStream("Tim\n0\n4\n".getBytes()), cut).run();
+        assertTrue(cut.toString().contains("Search sessions"));
+    }
+
+    @Test
+    void topMatches_reusesCachedOverlapsWhichAreReadOnly() {
+        StudyBuddyApp.MatchCache cache = sessionCtl.matchCache();
+        var first = sessionCtl.topMatches(aliceId, "CPSC 3720", 5, 0, null);
+        var second = sessionCtl.topMatches(aliceId, "CPSC 3720", 5, 0, null);
+        assertEquals(first.toString(), second.toString());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+
+        var cached = sessionCtl.suggestMatches(aliceId, "CPSC 3720", StudyBuddyApp.MatchMode.SWEEP);
+        List<StudyBuddyApp.TimeSlot> windows = cached.values().iterator().next();
+        assertThrows(UnsupportedOperationException.class, () -> windows.clear());
+        assertThrows(UnsupportedOperationException.class, () -> first.get(0).windows.clear());
+    }
+
+    @Test
+    void topMatches_parallelModeKeepsSequentialRanking() {
+        StudyBuddyApp.Repository big = new StudyBuddyApp.Repository();
+        new StudyBuddyApp.DatasetGenerator(7).students(3000).courses(2).coursesPerStudent(1, 1).sessions(0).populate(big);
+        StudyBuddyApp.SessionController ctl = new StudyBuddyApp.SessionController(big, 0); // no cache
+        String course = StudyBuddyApp.DatasetGenerator.courseCode(0);
+
+        ctl.setParallel(false);
+        var sequential = ctl.topMatches(1, course, 10, 30, null);
+        ctl.setParallel(true);
+        var parallel = ctl.topMatches(1, course, 10, 30, null);
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+
+    @Test
+    void availability_readersNeverSeeHalfAppliedChanges() throws Exception {
+        StudyBuddyApp.Student s = new StudyBuddyApp.Student(99, "Reader");
+        StudyBuddyApp.TimeSlot gap = new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(10,0), LocalTime.of(11,0));
+        s.addAvailability(new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(9,0), LocalTime.of(10,0)));
+        s.addAvailability(new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(11,0), LocalTime.of(12,0)));
+
+        java.util.concurrent.atomic.AtomicBoolean done = new java.util.concurrent.atomic.AtomicBoolean();
+        java.util.concurrent.atomic.AtomicReference<String> torn = new java.util.concurrent.atomic.AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get() && torn.get() == null) {
+                List<StudyBuddyApp.TimeSlot> slots = s.availability();
+                int minutes = 0;
+                for (StudyBuddyApp.TimeSlot t : slots) minutes += t.endMin - t.startMin;
+                // merged (one 3h slot) or split (two 1h slots); nothing in between
+                if (!(slots.size() == 1 && minutes == 180) && !(slots.size() == 2 && minutes == 120)) torn.set(slots.toString());
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 20_000; i++) {
+            s.addAvailability(gap);
+            s.removeAvailability(gap);
+        }
+        done.set(true);
+        reader.join();
+        assertNull(torn.get());
+        assertThrows(UnsupportedOperationException.class, () -> s.availability().clear());
+    }
+
+    @Test
+    void intSet_ofLargeCollectionKeepsFirstOccurrences() {
+        List<Integer> values = new java.util.ArrayList<>();
+        for (int i = 0; i < 100_000; i++) values.add(i % 70_000 * 3); // 30,000 repeats, spread over 3x the range
+        StudyBuddyApp.IntSet set = StudyBuddyApp.IntSet.of(values);
+        assertEquals(70_000, set.size());
+        assertEquals(0, set.get(0));
+        assertEquals(69_999 * 3, set.get(69_999));
+        assertTrue(set.contains(3 * 12_345));
+        assertFalse(set.contains(3 * 12_345 + 1));
+        assertEquals(List.of(7, 2, 9), new java.util.ArrayList<>(StudyBuddyApp.IntSet.of(List.of(7, 2, 7, 9, 2))));
+        assertSame(StudyBuddyApp.IntSet.EMPTY, StudyBuddyApp.IntSet.of(List.of()));
+    }
+
+    @Test
+    void writeAheadLog_failedAppendsChangeNothingAndBadRecordsFailReplay() throws Exception {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("studybuddy", ".wal");
+        try {
+            StudyBuddyApp.Repository live = StudyBuddyApp.Repository.concurrent();
+            StudyBuddyApp.WriteAheadLog log = StudyBuddyApp.WriteAheadLog.open(file, live);
+            StudyBuddyApp.Student ann = live.createStudent("Ann");
+            ann.addCourse("MATH 3110");
+            StudyBuddyApp.TimeSlot nine = new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(9,0), LocalTime.of(10,0));
+            ann.addAvailability(nine);
+            StudyBuddyApp.Student ben = live.createStudent("Ben");
+            ben.addCourse("MATH 3110");
+            StudyBuddyApp.StudySession ss = live.createSession("MATH 3110", nine, List.of(ann.id));
+            int version = ann.availabilityVersion();
+            log.close();
+
+            // appends now fail; nothing about the rejected changes may become visible
+            assertThrows(IllegalStateException.class, () -> live.createStudent("Annie"));
+            assertThrows(IllegalStateException.class, () -> live.createSession("MATH 3110", nine, List.of(ann.id)));
+            assertEquals(List.of(ss), live.searchSessionsByStudentName("ann"));
+            assertEquals(1, live.sessionsFor(ann.id).size());
+            assertEquals(2, live.allStudents().size());
+
+            assertThrows(IllegalStateException.class, () -> ann.addCourse("CPSC 3720"));
+            assertEquals("[MATH 3110]", ann.courses.toString());
+            assertTrue(live.studentsInCourse("CPSC 3720").isEmpty());
+            assertThrows(IllegalStateException.class, () -> ann.dropCourse("MATH 3110"));
+            assertEquals(List.of(ann, ben), live.studentsInCourse("MATH 3110"));
+
+            assertThrows(IllegalStateException.class, () -> ann.addAvailability(
+                    new StudyBuddyApp.TimeSlot(DayOfWeek.TUESDAY, LocalTime.of(9,0), LocalTime.of(10,0))));
+            assertThrows(IllegalStateException.class, () -> ann.removeAvailability(nine));
+            assertThrows(IllegalStateException.class, () -> ann.removeAvailability(0));
+            assertEquals("[MONDAY 09:00-10:00]", ann.availability().toString());
+            assertArrayEquals(StudyBuddyApp.WeekMask.of(ann.availability()), ann.availabilityMask());
+            assertEquals(version, ann.availabilityVersion());
+
+            assertThrows(IllegalStateException.class, () -> ss.addParticipant(ben.id));
+            assertFalse(ss.isParticipant(ben.id));
+            assertEquals(0, live.sessionsFor(ben.id).size());
+            assertThrows(IllegalStateException.class, () -> ss.confirm(ann.id));
+            assertEquals(0, ss.confirmedIds().size());
+
+            // a frame with a valid checksum but an impossible window (ends before it starts) fails startup
+            long intact = java.nio.file.Files.size(file);
+            java.io.ByteArrayOutputStream body = new java.io.ByteArrayOutputStream();
+            java.io.DataOutputStream out = new java.io.DataOutputStream(body);
+            out.writeByte(4); // AVAIL_ADD
+            out.writeInt(ann.id);
+            out.writeInt(600);
+            out.writeInt(540);
+            java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+            crc.update(body.toByteArray());
+            java.io.ByteArrayOutputStream frame = new java.io.ByteArrayOutputStream();
+            java.io.DataOutputStream f = new java.io.DataOutputStream(frame);
+            f.writeInt(body.size());
+            f.writeInt((int) crc.getValue());
+            f.write(body.toByteArray());
+            java.nio.file.Files.write(file, frame.toByteArray(), java.nio.file.StandardOpenOption.APPEND);
+
+            java.io.IOException e = assertThrows(java.io.IOException.class,
+                    () -> StudyBuddyApp.WriteAheadLog.open(file, new StudyBuddyApp.Repository()));
+            assertTrue(e.getMessage().contains("offset " + intact), e.getMessage());
+            assertTrue(e.getCause() instanceof IllegalArgumentException, String.valueOf(e.getCause()));
+            assertEquals(intact + frame.size(), java.nio.file.Files.size(file)); // nothing truncated
+        } finally {
+            java.nio.file.Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void studentsInCourse_includesRestoredStudentZero() {
+        StudyBuddyApp.Repository r = new StudyBuddyApp.Repository();
+        StudyBuddyApp.Student zero = r.restoreStudent(0, "Zoe");
+        zero.addCourse("CPSC 3720");
+        zero.addAvailability(new StudyBuddyApp.TimeSlot(DayOfWeek.TUESDAY, LocalTime.of(9,0), LocalTime.of(10,0)));
+        assertEquals(List.of(zero), r.studentsInCourse("CPSC 3720"));
+        var best = new StudyBuddyApp.SessionController(r).bestTimes("CPSC 3720", 30, 1);
+        assertEquals("TUESDAY 09:00-10:00 (1 free)", best.get(0).toString());
+    }
+
+    @Test
+    void topMatches_sweepAndCachedOverlapsRankAlike() {
+        StudyBuddyApp.Repository big = new StudyBuddyApp.Repository();
+        new StudyBuddyApp.DatasetGenerator(11).students(600).courses(3).coursesPerStudent(1, 2).sessions(0).populate(big);
+        String course = StudyBuddyApp.DatasetGenerator.courseCode(0);
+        StudyBuddyApp.SessionController swept = new StudyBuddyApp.SessionController(big, 0); // no cache: always sweeps
+        StudyBuddyApp.SessionController cached = new StudyBuddyApp.SessionController(big);
+        cached.suggestMatches(1, course, StudyBuddyApp.MatchMode.SWEEP); // rankings now reuse this map
+        Set<DayOfWeek> weekend = java.util.EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+        for (int k : new int[] {1, 5, 1000}) {
+            for (int minWindow : new int[] {0, 60}) {
+                for (Set<DayOfWeek> days : java.util.Arrays.asList(null, weekend)) {
+                    var a = swept.topMatches(1, course, k, minWindow, days);
+                    var b = cached.topMatches(1, course, k, minWindow, days);
+                    assertEquals(a.toString(), b.toString());
+                    for (int i = 0; i < a.size(); i++) assertEquals(a.get(i).windows.toString(), b.get(i).windows.toString());
+                }
+            }
+        }
+        assertEquals(0, cached.matchCache().hits());
+        assertEquals("[]", cached.topMatches(1, "NOPE 0000", 3, 0, null).toString());
+    }
 }
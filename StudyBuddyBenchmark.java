@@ -0,0 +1,152 @@
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.function.IntSupplier;
+
+/**
+ * Study Buddy - micro-benchmarks for the matching and search hot paths.
+ *
+ * The project is a plain source tree with no build tool, so this is a small self-contained
+ * harness in the spirit of JMH rather than a JMH module: every benchmark gets warmup and
+ * measurement iterations of a fixed duration, results are fed to a sink so the JIT cannot
+ * drop them, and the whole suite runs once per point of a parameter grid.
+ *
+ * Usage (all arguments optional, comma-separated values form the grid):
+ *   java StudyBuddyBenchmark students=1000,10000 courses=50 slots=8 sessions=5000 warmup=3 iterations=5 millis=200
+ *
+ * Benchmarks:
+ *   timeSlot.overlaps / timeSlot.intersection
+ *   suggestMatches.PAIRWISE / .BITMASK / .SWEEP / .cached
+ *   repo.classmatesInCourse / repo.searchSessionsByCourse / repo.searchSessionsByStudentName
+ */
+public class StudyBuddyBenchmark {
+
+    /** Keeps benchmark results observable so the JIT cannot eliminate the work. */
+    private static volatile long sink;
+
+    private final Map<String, List<Integer>> grid = new LinkedHashMap<>();
+    private int warmup = 3;
+    private int iterations = 5;
+    private long millis = 200;
+
+    /** Parses key=value arguments on top of the default grid. */
+    StudyBuddyBenchmark(String[] args) {
+        grid.put("students", List.of(1_000, 10_000));
+        grid.put("courses", List.of(50));
+        grid.put("slots", List.of(8));
+        grid.put("sessions", List.of(5_000));
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            if (kv.length != 2) throw new IllegalArgumentException("Expected key=value: " + arg);
+            switch (kv[0]) {
+                case "warmup": warmup = Integer.parseInt(kv[1]); break;
+                case "iterations": iterations = Integer.parseInt(kv[1]); break;
+                case "millis": millis = Long.parseLong(kv[1]); break;
+                default:
+                    if (!grid.containsKey(kv[0])) throw new IllegalArgumentException("Unknown parameter: " + kv[0]);
+                    List<Integer> values = new ArrayList<>();
+                    for (String v : kv[1].split(",")) values.add(Integer.parseInt(v.trim()));
+                    grid.put(kv[0], values);
+            }
+        }
+    }
+
+    /** Runs the suite for every point of the parameter grid. */
+    void run() {
+        System.out.printf("%-40s %9s %8s %6s %9s %14s %10s%n",
+                "benchmark", "students", "courses", "slots", "sessions", "ns/op", "+-");
+        for (int students : grid.get("students"))
+            for (int courses : grid.get("courses"))
+                for (int slots : grid.get("slots"))
+                    for (int sessions : grid.get("sessions"))
+                        runPoint(new Fixture(students, courses, slots, sessions));
+    }
+
+    /** Runs every benchmark against one fixture. */
+    private void runPoint(Fixture f) {
+        StudyBuddyApp.TimeSlot a = new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(10, 0), LocalTime.of(12, 0));
+        StudyBuddyApp.TimeSlot b = new StudyBuddyApp.TimeSlot(DayOfWeek.MONDAY, LocalTime.of(11, 0), LocalTime.of(13, 0));
+        StudyBuddyApp.TimeSlot[] pair = { a, b };
+        measure(f, "timeSlot.overlaps", () -> pair[f.next() & 1].overlaps(pair[0]) ? 1 : 0);
+        measure(f, "timeSlot.intersection", () -> {
+            StudyBuddyApp.TimeSlot t = pair[f.next() & 1].intersection(pair[1]);
+            return t == null ? 0 : t.endMin;
+        });
+
+        for (StudyBuddyApp.MatchMode mode : StudyBuddyApp.MatchMode.values()) {
+            measure(f, "suggestMatches." + mode, () -> {
+                int id = f.randomStudent();
+                return f.sessionCtl.suggestMatches(id, f.courseOf(id), mode).size();
+            });
+        }
+
+        measure(f, "suggestMatches.cached", () -> {
+            int id = 1 + (f.next() & 63) % f.students; // small working set, as with users re-opening their suggestions
+            return f.cachedCtl.suggestMatches(id, f.courseOf(id)).size();
+        });
+
+        measure(f, "repo.classmatesInCourse", () -> f.repo.classmatesInCourse(f.randomStudent(), f.randomCourse()).size());
+        measure(f, "repo.searchSessionsByCourse", () -> f.repo.searchSessionsByCourse(f.randomCourse()).size());
+        measure(f, "repo.searchSessionsByStudentName", () -> {
+            String name = f.repo.getStudent(f.randomStudent()).name;
+            return f.repo.searchSessionsByStudentName(name.substring(name.indexOf(' ') - 2)).size(); // e.g. "ce Smith"
+        });
+    }
+
+    /**
+     * Warms up, then reports mean ns/op and the spread across measurement iterations.
+     */
+    private void measure(Fixture f, String name, IntSupplier op) {
+        for (int i = 0; i < warmup; i++) iteration(op);
+        double[] nsPerOp = new double[iterations];
+        for (int i = 0; i < iterations; i++) nsPerOp[i] = iteration(op);
+        double mean = Arrays.stream(nsPerOp).average().orElse(0);
+        double var = Arrays.stream(nsPerOp).map(x -> (x - mean) * (x - mean)).sum() / Math.max(1, iterations - 1);
+        System.out.printf("%-40s %9d %8d %6d %9d %14.1f %10.1f%n",
+                name, f.students, f.courses, f.slots, f.sessions, mean, Math.sqrt(var));
+    }
+
+    /** Runs the operation for roughly {@link #millis} and returns ns per call. */
+    private double iteration(IntSupplier op) {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long ops = 0, acc = 0;
+        long start = System.nanoTime(), now;
+        do {
+            for (int i = 0; i < 64; i++) acc += op.getAsInt();
+            ops += 64;
+        } while ((now = System.nanoTime()) < deadline);
+        sink += acc;
+        return (double) (now - start) / ops;
+    }
+
+    /**
+     * Deterministic population for one grid point, built by {@link StudyBuddyApp.DatasetGenerator}.
+     */
+    private static final class Fixture {
+        final int students, courses, slots, sessions;
+        final StudyBuddyApp.Repository repo = new StudyBuddyApp.Repository();
+        final StudyBuddyApp.SessionController sessionCtl = new StudyBuddyApp.SessionController(repo, 0); // measure the engines
+        final StudyBuddyApp.SessionController cachedCtl = new StudyBuddyApp.SessionController(repo);
+        private int counter;
+
+        Fixture(int students, int courses, int slots, int sessions) {
+            this.students = students; this.courses = courses; this.slots = slots; this.sessions = sessions;
+            new StudyBuddyApp.DatasetGenerator(3720)
+                    .students(students).courses(courses).slotsPerStudent(slots).sessions(sessions)
+                    .populate(repo);
+        }
+
+        /** Cheap per-call index so benchmarks do not spend their time in Random. */
+        int next() { return counter++; }
+
+        int randomStudent() { return 1 + Math.floorMod(next() * 0x9E3779B9, students); }
+
+        String randomCourse() { return StudyBuddyApp.DatasetGenerator.courseCode(Math.floorMod(next() * 0x85EBCA6B, courses)); }
+
+        String courseOf(int studentId) { return repo.getStudent(studentId).courses.iterator().next(); }
+    }
+
+    public static void main(String[] args) {
+        new StudyBuddyBenchmark(args).run();
+    }
+}